@@ -2,6 +2,7 @@ package colox.gridmod;
 
 import colox.gridmod.config.GridConfig;
 import colox.gridmod.input.GridKeybinds;
+import colox.gridmod.overlay.OverlayDrawables;
 import colox.gridmod.paint.PaintState;
 import necesse.engine.modLoader.annotations.ModEntry;
 
@@ -35,4 +36,10 @@ public class GridMod {
     public void postInit() {
         // hooks for later
     }
+
+    // ** Called when the game shuts down / mods unload: push any debounced paint save to disk
+    public void dispose() {
+        PaintState.flushSave();
+        OverlayDrawables.dispose();
+    }
 }
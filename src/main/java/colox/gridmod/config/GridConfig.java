@@ -49,7 +49,16 @@ public final class GridConfig {
     public static PaintLayerFilter paintEraseFilter = PaintLayerFilter.ALL;
     public static boolean paintEraseOverride = false;
     public static PaintLayerFilter paintSelectionFilter = PaintLayerFilter.ALL;
+    // Selection wand: match the seed's layer instead of its category, 8-connected, tile cap
+    public static boolean wandMatchLayer = false;
+    public static boolean wandDiagonal = false;
+    public static int wandMaxTiles = 1_000_000;
     private static final HashMap<String, PaintColor> paintCategoryColors = new HashMap<>();
+    // Bumped whenever a category color may have changed; render caches compare against it
+    private static long paintColorVersion = 0L;
+    // Bumped on every settings change; renderSettings() rebuilds its snapshot when it moves
+    private static long settingsVersion = 0L;
+    private static RenderSettings renderSettings;
     private static final HashMap<String, Boolean> hoverCategoryVisibility = new HashMap<>();
 
     static {
@@ -62,6 +71,11 @@ public final class GridConfig {
 
     public static float uiOpacity = 1.0f;
 
+    // Quiet period before a paint edit is written to disk (ms, 0 = next tick)
+    public static int paintSaveQuietMs = 750;
+    // Max paint regions (256x256 tiles each) kept in memory; idle clean ones beyond this are evicted
+    public static int paintRegionBudget = 64;
+
     // ===== Settlement =====
     public static boolean settlementEnabled = false;
     public static String settlementMode = "builtin";
@@ -90,7 +104,7 @@ public final class GridConfig {
 
     private GridConfig() {}
 
-    public static void markDirty() { dirty = true; }
+    public static void markDirty() { dirty = true; settingsVersion++; }
     public static void saveIfDirty() { if (dirty) save(); }
 
     public static void load() {
@@ -164,6 +178,9 @@ public final class GridConfig {
             paintEraseFilter = PaintLayerFilter.byId(ld.getSafeString("paintEraseFilter", paintEraseFilter.id()));
             paintEraseOverride = ld.getBoolean("paintEraseOverride", paintEraseOverride);
             paintSelectionFilter = PaintLayerFilter.byId(ld.getSafeString("paintSelectionFilter", paintSelectionFilter.id()));
+            wandMatchLayer = ld.getBoolean("wandMatchLayer", wandMatchLayer);
+            wandDiagonal = ld.getBoolean("wandDiagonal", wandDiagonal);
+            wandMaxTiles = clampWandMaxTiles(ld.getInt("wandMaxTiles", wandMaxTiles));
             for (PaintCategory cat : PaintCategory.values()) {
                 float r = ld.getFloat("paintCategory." + cat.id() + ".r", cat.defaultR());
                 float g = ld.getFloat("paintCategory." + cat.id() + ".g", cat.defaultG());
@@ -171,11 +188,14 @@ public final class GridConfig {
                 float a = ld.getFloat("paintCategory." + cat.id() + ".a", cat.defaultA());
                 paintCategoryColors.put(cat.id(), new PaintColor(r, g, b, a));
             }
+            paintColorVersion++;
 
             selectedBlueprint = DefaultBlueprintRegistry.canonicalKey(ld.getSafeString("selectedBlueprint", selectedBlueprint));
             selectedGlobalBlueprint = DefaultBlueprintRegistry.canonicalKey(ld.getSafeString("selectedGlobalBlueprint", selectedGlobalBlueprint));
 
             uiOpacity = ld.getFloat("uiOpacity", uiOpacity);
+            paintSaveQuietMs = ld.getInt("paintSaveQuietMs", paintSaveQuietMs);
+            paintRegionBudget = ld.getInt("paintRegionBudget", paintRegionBudget);
 
             settlementEnabled = ld.getBoolean("settlementEnabled", settlementEnabled);
             settlementMode = ld.getSafeString("settlementMode", settlementMode);
@@ -203,11 +223,13 @@ public final class GridConfig {
         } catch (Throwable t) {
             t.printStackTrace();
         }
+        settingsVersion++;
     }
 
     public static void save() {
         try {
             clamp();
+            settingsVersion++;
             SaveData sd = new SaveData("gridmod");
 
             sd.addInt("tileSize", tileSize);
@@ -253,11 +275,16 @@ public final class GridConfig {
             sd.addSafeString("paintEraseFilter", paintEraseFilter.id());
             sd.addBoolean("paintEraseOverride", paintEraseOverride);
             sd.addSafeString("paintSelectionFilter", paintSelectionFilter.id());
+            sd.addBoolean("wandMatchLayer", wandMatchLayer);
+            sd.addBoolean("wandDiagonal", wandDiagonal);
+            sd.addInt("wandMaxTiles", wandMaxTiles);
 
             sd.addSafeString("selectedBlueprint", selectedBlueprint);
             sd.addSafeString("selectedGlobalBlueprint", selectedGlobalBlueprint);
 
             sd.addFloat("uiOpacity", uiOpacity);
+            sd.addInt("paintSaveQuietMs", paintSaveQuietMs);
+            sd.addInt("paintRegionBudget", paintRegionBudget);
 
             sd.addBoolean("settlementEnabled", settlementEnabled);
             sd.addSafeString("settlementMode", settlementMode);
@@ -312,6 +339,8 @@ public final class GridConfig {
         if (selectedGlobalBlueprint == null || selectedGlobalBlueprint.isBlank()) selectedGlobalBlueprint = "global_quick";
 
         uiOpacity = clamp01(uiOpacity);
+        paintSaveQuietMs = Math.max(0, Math.min(10000, paintSaveQuietMs));
+        paintRegionBudget = Math.max(4, Math.min(4096, paintRegionBudget));
 
         if (settlementMode == null || settlementMode.isBlank()) settlementMode = "builtin";
         settlementTier = Math.max(1, Math.min(maxTier(), settlementTier));
@@ -443,6 +472,32 @@ public final class GridConfig {
         }
     }
 
+    public static void setWandMatchLayer(boolean byLayer) {
+        if (wandMatchLayer != byLayer) {
+            wandMatchLayer = byLayer;
+            markDirty();
+        }
+    }
+
+    public static void setWandDiagonal(boolean diagonal) {
+        if (wandDiagonal != diagonal) {
+            wandDiagonal = diagonal;
+            markDirty();
+        }
+    }
+
+    public static void setWandMaxTiles(int maxTiles) {
+        maxTiles = clampWandMaxTiles(maxTiles);
+        if (wandMaxTiles != maxTiles) {
+            wandMaxTiles = maxTiles;
+            markDirty();
+        }
+    }
+
+    private static int clampWandMaxTiles(int maxTiles) {
+        return Math.max(1, Math.min(16_000_000, maxTiles));
+    }
+
     public static PaintLayerFilter getEffectivePaintEraseFilter() {
         if (paintEraseOverride) {
             return paintEraseFilter;
@@ -469,6 +524,7 @@ public final class GridConfig {
         for (PaintCategory cat : PaintCategory.values()) {
             hoverCategoryVisibility.put(cat.id(), Boolean.TRUE);
         }
+        settingsVersion++;
     }
 
     // ---------- Paint category helpers ----------
@@ -485,14 +541,29 @@ public final class GridConfig {
     public static void setPaintColor(PaintCategory category, float r, float g, float b, float a) {
         if (category == null) category = PaintCategory.defaultCategory();
         paintCategoryColors.put(category.id(), new PaintColor(r, g, b, a));
+        paintColorVersion++;
         markDirty();
     }
 
+    public static long getPaintColorVersion() { return paintColorVersion; }
+
+    /** Immutable snapshot of the render-relevant settings; rebuilt only after a change. */
+    public static RenderSettings renderSettings() {
+        RenderSettings settings = renderSettings;
+        if (settings == null || settings.version != settingsVersion) {
+            settings = new RenderSettings(settingsVersion, paintColorVersion);
+            renderSettings = settings;
+        }
+        return settings;
+    }
+
     public static void resetPaintCategoryColors() {
         paintCategoryColors.clear();
         for (PaintCategory cat : PaintCategory.values()) {
             paintCategoryColors.put(cat.id(), new PaintColor(cat.defaultR(), cat.defaultG(), cat.defaultB(), cat.defaultA()));
         }
+        paintColorVersion++;
+        settingsVersion++;
     }
 
     public static final class PaintColor {
@@ -0,0 +1,118 @@
+package colox.gridmod.config;
+
+import colox.gridmod.paint.PaintCategory;
+import colox.gridmod.paint.PaintLayerFilter;
+
+/*
+// ===========================================================================
+// PURPOSE: Immutable snapshot of the GridConfig values the overlays draw with.
+// - Built by GridConfig.renderSettings() only after a change (markDirty(),
+//   load(), save() or a color reset), so drawables can hold it by reference
+//   and read plain final fields.
+// - Category colors and hover switches are arrays indexed by
+//   PaintCategory.ordinal() instead of the id-keyed HashMaps in GridConfig.
+// - version changes with every rebuild; colorVersion only when a category
+//   color may have changed (render caches key on it).
+// ===========================================================================
+*/
+public final class RenderSettings {
+    private static final PaintCategory[] CATEGORIES = PaintCategory.values();
+
+    public final long version;
+    public final long colorVersion;
+
+    public final int tileSize;
+
+    // Grid lines
+    public final float lineAlpha, lineR, lineG, lineB;
+    public final boolean showChunkLines;
+    public final int chunkSpanTiles, chunkThickness;
+    public final float chunkAlpha, chunkR, chunkG, chunkB;
+    public final boolean showSubChunkLines;
+    public final int subChunkSpanTiles, subChunkThickness;
+    public final float subChunkAlpha, subChunkR, subChunkG, subChunkB;
+
+    // Settlement bounds
+    public final float settlementR, settlementG, settlementB;
+    public final float settlementFillAlpha, settlementOutlineAlpha;
+    public final int settlementOutlineThickness;
+
+    // Paint overlay
+    public final PaintCategory activeCategory;
+    public final float paintR, paintG, paintB, paintA;
+    public final float eraseR, eraseG, eraseB, eraseA;
+    public final float selectionR, selectionG, selectionB, selectionA;
+    public final boolean hoverLabelsEnabled;
+    public final PaintLayerFilter paintSelectionFilter;
+
+    private final GridConfig.PaintColor[] colors;
+    private final boolean[] hoverAllowed;
+
+    RenderSettings(long version, long colorVersion) {
+        this.version = version;
+        this.colorVersion = colorVersion;
+        this.tileSize = GridConfig.tileSize;
+
+        this.lineAlpha = GridConfig.lineAlpha;
+        this.lineR = GridConfig.r;
+        this.lineG = GridConfig.g;
+        this.lineB = GridConfig.b;
+        this.showChunkLines = GridConfig.showChunkLines;
+        this.chunkSpanTiles = GridConfig.chunkSpanTiles;
+        this.chunkThickness = GridConfig.chunkThickness;
+        this.chunkAlpha = GridConfig.chunkAlpha;
+        this.chunkR = GridConfig.cr;
+        this.chunkG = GridConfig.cg;
+        this.chunkB = GridConfig.cb;
+        this.showSubChunkLines = GridConfig.showSubChunkLines;
+        this.subChunkSpanTiles = Math.max(2, GridConfig.subChunkSpanTiles);
+        this.subChunkThickness = GridConfig.subChunkThickness;
+        this.subChunkAlpha = GridConfig.subChunkAlpha;
+        this.subChunkR = GridConfig.scr;
+        this.subChunkG = GridConfig.scg;
+        this.subChunkB = GridConfig.scb;
+
+        this.settlementR = GridConfig.sbr;
+        this.settlementG = GridConfig.sbg;
+        this.settlementB = GridConfig.sbb;
+        this.settlementFillAlpha = GridConfig.settlementFillAlpha;
+        this.settlementOutlineAlpha = GridConfig.settlementOutlineAlpha;
+        this.settlementOutlineThickness = GridConfig.settlementOutlineThickness;
+
+        this.colors = new GridConfig.PaintColor[CATEGORIES.length];
+        this.hoverAllowed = new boolean[CATEGORIES.length];
+        for (PaintCategory cat : CATEGORIES) {
+            colors[cat.ordinal()] = GridConfig.getPaintColor(cat);
+            hoverAllowed[cat.ordinal()] = GridConfig.isHoverCategoryAllowed(cat);
+        }
+
+        this.activeCategory = GridConfig.getActivePaintCategory();
+        GridConfig.PaintColor active = color(activeCategory);
+        this.paintR = active.r;
+        this.paintG = active.g;
+        this.paintB = active.b;
+        this.paintA = active.a;
+        this.eraseR = GridConfig.eraseR;
+        this.eraseG = GridConfig.eraseG;
+        this.eraseB = GridConfig.eraseB;
+        this.eraseA = GridConfig.eraseAlpha;
+        this.selectionR = GridConfig.selectionR;
+        this.selectionG = GridConfig.selectionG;
+        this.selectionB = GridConfig.selectionB;
+        this.selectionA = GridConfig.selectionAlpha;
+        this.hoverLabelsEnabled = GridConfig.isHoverLabelsEnabled();
+        this.paintSelectionFilter = GridConfig.getPaintSelectionFilter();
+    }
+
+    /** Color of {@code category} (the default category when null). */
+    public GridConfig.PaintColor color(PaintCategory category) {
+        if (category == null) category = PaintCategory.defaultCategory();
+        return colors[category.ordinal()];
+    }
+
+    /** Same as GridConfig.isHoverCategoryAllowed, from the snapshot. */
+    public boolean isHoverAllowed(PaintCategory category) {
+        if (category == null) category = PaintCategory.defaultCategory();
+        return hoverAllowed[category.ordinal()];
+    }
+}
@@ -46,6 +46,12 @@ public final class GridKeybinds {
     public static Control PAINT_BP_SAVE;   // quick blueprint save
     public static Control PAINT_BP_LOAD;   // quick blueprint load/placement
 
+    // ** Selection combine controls
+    public static Control SELECT_ADD_MOD;       // hold while starting a drag: add to selection
+    public static Control SELECT_SUBTRACT_MOD;  // hold while starting a drag: subtract from selection
+    public static Control SELECT_INTERSECT_MOD; // hold while starting a drag: intersect with selection
+    public static Control SELECT_INVERT;        // invert selection within painted tiles
+
     // ** Blueprint transform controls
     public static Control BP_ROTATE_CW;    // Rotate clockwise
     public static Control BP_ROTATE_CCW;   // Counter-clockwise
@@ -94,6 +100,12 @@ public final class GridKeybinds {
         PAINT_BP_SAVE   = Control.addModControl(new Control(0, "gridmod.paint.bpsave",  new StaticMessage("Blueprint: Quick save"), "gridmod"));
         PAINT_BP_LOAD   = Control.addModControl(new Control(0, "gridmod.paint.bpload",  new StaticMessage("Blueprint: Quick load/place"), "gridmod"));
 
+        // Selection combine (modifiers apply to the drag they start)
+        SELECT_ADD_MOD       = Control.addModControl(new Control(0, "gridmod.select.add",       new StaticMessage("Selection: Add (hold)"),       "gridmod"));
+        SELECT_SUBTRACT_MOD  = Control.addModControl(new Control(0, "gridmod.select.subtract",  new StaticMessage("Selection: Subtract (hold)"),  "gridmod"));
+        SELECT_INTERSECT_MOD = Control.addModControl(new Control(0, "gridmod.select.intersect", new StaticMessage("Selection: Intersect (hold)"), "gridmod"));
+        SELECT_INVERT        = Control.addModControl(new Control(0, "gridmod.select.invert",    new StaticMessage("Selection: Invert"),           "gridmod"));
+
         // Blueprint transforms
         BP_ROTATE_CW   = Control.addModControl(new Control(0, "gridmod.bp.rotatecw",  new StaticMessage("Blueprint: Rotate CW"),  "gridmod"));
         BP_ROTATE_CCW  = Control.addModControl(new Control(0, "gridmod.bp.rotateccw", new StaticMessage("Blueprint: Rotate CCW"), "gridmod"));
@@ -0,0 +1,77 @@
+package colox.gridmod.overlay;
+
+import necesse.gfx.gameFont.FontOptions;
+import necesse.gfx.gameTexture.GameTexture;
+
+/**
+ * Headless {@link DrawSink} that only counts: calls per primitive kind, covered quad area and
+ * text characters. Allocation-free, so it can sit under a benchmark loop. Text is measured
+ * as a fixed-width font ({@code charWidth} x {@code lineHeight}).
+ */
+public class CountingDrawSink implements DrawSink {
+    private final int charWidth;
+    private final int lineHeight;
+
+    public long quads, sprites, hudQuads, texts;
+    public long quadArea, spriteArea, hudArea;
+    public long textChars;
+
+    public CountingDrawSink() {
+        this(8, 16);
+    }
+
+    public CountingDrawSink(int charWidth, int lineHeight) {
+        this.charWidth = charWidth;
+        this.lineHeight = lineHeight;
+    }
+
+    /** All engine draw calls the same frame would have cost. */
+    public long drawCalls() {
+        return quads + sprites + hudQuads + texts;
+    }
+
+    public void reset() {
+        quads = sprites = hudQuads = texts = 0L;
+        quadArea = spriteArea = hudArea = 0L;
+        textChars = 0L;
+    }
+
+    @Override
+    public void quad(int x, int y, int w, int h, float r, float g, float b, float a) {
+        quads++;
+        quadArea += (long) w * h;
+    }
+
+    @Override
+    public void sprite(GameTexture texture, int x, int y, int w, int h, float r, float g, float b, float a) {
+        sprites++;
+        spriteArea += (long) w * h;
+    }
+
+    @Override
+    public void hudQuad(int x, int y, int w, int h, float r, float g, float b, float a) {
+        hudQuads++;
+        hudArea += (long) w * h;
+    }
+
+    @Override
+    public boolean hasFont() {
+        return true;
+    }
+
+    @Override
+    public void text(float x, float y, String text, FontOptions font) {
+        texts++;
+        textChars += text.length();
+    }
+
+    @Override
+    public int textWidth(String text, FontOptions font) {
+        return text.length() * charWidth;
+    }
+
+    @Override
+    public int textHeight(String text, FontOptions font) {
+        return lineHeight;
+    }
+}
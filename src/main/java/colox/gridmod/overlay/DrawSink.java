@@ -0,0 +1,30 @@
+package colox.gridmod.overlay;
+
+import necesse.gfx.gameFont.FontOptions;
+import necesse.gfx.gameTexture.GameTexture;
+
+/**
+ * Every primitive the GridMod overlays emit. {@link EngineDrawSink} draws through Necesse;
+ * {@link CountingDrawSink} and {@link RecordingDrawSink} need no window or GPU, so the
+ * overlay render path can be measured and checked headless. The sink for a frame travels
+ * in {@link FrameContext#sink}. Coordinates are screen pixels.
+ */
+public interface DrawSink {
+    /** Solid rectangle in the world overlay ({@code GameResources.empty}). */
+    void quad(int x, int y, int w, int h, float r, float g, float b, float a);
+
+    /** Tinted texture stretched over the rectangle. */
+    void sprite(GameTexture texture, int x, int y, int w, int h, float r, float g, float b, float a);
+
+    /** Solid HUD rectangle ({@code Renderer.initQuadDraw}). */
+    void hudQuad(int x, int y, int w, int h, float r, float g, float b, float a);
+
+    /** False when no font is available; text is then skipped by the callers. */
+    boolean hasFont();
+
+    void text(float x, float y, String text, FontOptions font);
+
+    int textWidth(String text, FontOptions font);
+
+    int textHeight(String text, FontOptions font);
+}
@@ -0,0 +1,57 @@
+package colox.gridmod.overlay;
+
+import necesse.gfx.GameResources;
+import necesse.gfx.Renderer;
+import necesse.gfx.gameFont.FontManager;
+import necesse.gfx.gameFont.FontOptions;
+import necesse.gfx.gameTexture.GameTexture;
+
+/** {@link DrawSink} that draws through Necesse's renderer and bit font. */
+public final class EngineDrawSink implements DrawSink {
+    public static final EngineDrawSink INSTANCE = new EngineDrawSink();
+
+    private EngineDrawSink() {}
+
+    @Override
+    public void quad(int x, int y, int w, int h, float r, float g, float b, float a) {
+        GameResources.empty.initDraw()
+                .size(w, h)
+                .pos(x, y, false)
+                .color(r, g, b, a)
+                .draw();
+    }
+
+    @Override
+    public void sprite(GameTexture texture, int x, int y, int w, int h, float r, float g, float b, float a) {
+        texture.initDraw()
+                .size(w, h)
+                .pos(x, y, false)
+                .color(r, g, b, a)
+                .draw();
+    }
+
+    @Override
+    public void hudQuad(int x, int y, int w, int h, float r, float g, float b, float a) {
+        Renderer.initQuadDraw(w, h).color(r, g, b, a).draw(x, y);
+    }
+
+    @Override
+    public boolean hasFont() {
+        return FontManager.bit != null;
+    }
+
+    @Override
+    public void text(float x, float y, String text, FontOptions font) {
+        FontManager.bit.drawString(x, y, text, font);
+    }
+
+    @Override
+    public int textWidth(String text, FontOptions font) {
+        return FontManager.bit.getWidthCeil(text, font);
+    }
+
+    @Override
+    public int textHeight(String text, FontOptions font) {
+        return FontManager.bit.getHeightCeil(text, font);
+    }
+}
@@ -0,0 +1,121 @@
+package colox.gridmod.overlay;
+
+import colox.gridmod.config.GridConfig;
+import colox.gridmod.config.RenderSettings;
+import colox.gridmod.input.GridKeybinds;
+import colox.gridmod.paint.MouseTileUtil;
+import colox.gridmod.paint.PaintState;
+import necesse.engine.input.Input;
+import necesse.engine.window.GameWindow;
+import necesse.engine.window.WindowManager;
+import necesse.gfx.camera.GameCamera;
+
+/*
+// ===========================================================================
+// PURPOSE: Everything the GridMod drawables need about the current frame,
+// computed once in GridOverlayHook and handed to each drawable via bind().
+// - Camera rectangle, visible tile range (one tile of margin) and the paint
+//   chunk range covering it.
+// - Mouse tile and the erase-preview inputs (RMB / erase modifier).
+// - The current RenderSettings (immutable GridConfig snapshot), so every
+//   drawable sees the same values for the whole frame.
+// - The DrawSink all primitives go to (the engine, or a headless sink).
+// Build one with capture(camera); of(...) takes the inputs explicitly
+// (headless checks, benchmarks).
+// ===========================================================================
+*/
+public final class FrameContext {
+    private static long frameCounter = 0L;
+
+    public final long frameId;
+
+    // Camera / visibility
+    public final int camX, camY, viewW, viewH;
+    public final int tileSize;
+    public final int startTileX, startTileY, endTileX, endTileY;
+    public final int startChunkX, startChunkY, endChunkX, endChunkY;
+
+    // Input
+    public final boolean hasMouseTile;
+    public final int mouseTx, mouseTy;
+    public final boolean rightMouseDown;
+    public final boolean eraseModifierDown;
+
+    // Render settings in effect for this frame (shared, rebuilt only on config changes)
+    public final RenderSettings settings;
+
+    // Output: where primitives go, and the HUD width for screen-anchored panels
+    public final DrawSink sink;
+    public final int hudWidth;
+
+    private FrameContext(RenderSettings settings, DrawSink sink, int hudWidth,
+                         int camX, int camY, int viewW, int viewH, int[] mouseTile,
+                         boolean rightMouseDown, boolean eraseModifierDown) {
+        this.frameId = ++frameCounter;
+        this.settings = settings;
+        this.sink = sink;
+        this.hudWidth = hudWidth;
+        this.camX = camX;
+        this.camY = camY;
+        this.viewW = viewW;
+        this.viewH = viewH;
+        this.tileSize = settings.tileSize;
+        this.startTileX = camX / tileSize - 1;
+        this.startTileY = camY / tileSize - 1;
+        this.endTileX = (camX + viewW) / tileSize + 1;
+        this.endTileY = (camY + viewH) / tileSize + 1;
+        this.startChunkX = PaintState.chunkCoordOf(startTileX);
+        this.startChunkY = PaintState.chunkCoordOf(startTileY);
+        this.endChunkX = PaintState.chunkCoordOf(endTileX);
+        this.endChunkY = PaintState.chunkCoordOf(endTileY);
+
+        this.hasMouseTile = mouseTile != null;
+        this.mouseTx = hasMouseTile ? mouseTile[0] : 0;
+        this.mouseTy = hasMouseTile ? mouseTile[1] : 0;
+        this.rightMouseDown = rightMouseDown;
+        this.eraseModifierDown = eraseModifierDown;
+    }
+
+    /** Reads camera, mouse and input state for this frame. */
+    public static FrameContext capture(GameCamera camera) {
+        boolean rmb = false;
+        boolean eraseMod = false;
+        int hudWidth = 0;
+        try {
+            GameWindow window = WindowManager.getWindow();
+            if (window != null) hudWidth = window.getHudWidth();
+            Input input = window != null ? window.getInput() : null;
+            if (input != null) {
+                // Right mouse held
+                try { if (input.isKeyDown(-99) || input.isPressed(-99)) rmb = true; } catch (Throwable ignored) {}
+                // Erase mod key held
+                int eraseKey = (GridKeybinds.PAINT_ERASE_MOD != null) ? GridKeybinds.PAINT_ERASE_MOD.getKey() : -1;
+                if (eraseKey != -1) {
+                    try { if (input.isKeyDown(eraseKey)) eraseMod = true; } catch (Throwable ignored) {}
+                }
+            }
+        } catch (Throwable ignored) {}
+        RenderSettings settings = GridConfig.renderSettings();
+        return new FrameContext(settings, EngineDrawSink.INSTANCE, hudWidth,
+                camera.getX(), camera.getY(), camera.getWidth(), camera.getHeight(),
+                MouseTileUtil.getMouseTile(settings.tileSize), rmb, eraseMod);
+    }
+
+    /** Builds an engine-drawing context from explicit inputs; settings are GridConfig's current snapshot. */
+    public static FrameContext of(int camX, int camY, int viewW, int viewH, int[] mouseTile,
+                                  boolean rightMouseDown, boolean eraseModifierDown) {
+        return of(EngineDrawSink.INSTANCE, camX, camY, viewW, viewH, mouseTile, rightMouseDown, eraseModifierDown);
+    }
+
+    /** Same, drawing into {@code sink} (e.g. a headless CountingDrawSink); the HUD is as wide as the view. */
+    public static FrameContext of(DrawSink sink, int camX, int camY, int viewW, int viewH, int[] mouseTile,
+                                  boolean rightMouseDown, boolean eraseModifierDown) {
+        return new FrameContext(GridConfig.renderSettings(), sink, viewW, camX, camY, viewW, viewH, mouseTile,
+                rightMouseDown, eraseModifierDown);
+    }
+
+    /** True if the tile lies in the visible range (margin included). */
+    public boolean isTileVisible(int tx, int ty) {
+        return tx >= startTileX && tx <= endTileX && ty >= startTileY && ty <= endTileY;
+    }
+}
@@ -0,0 +1,175 @@
+package colox.gridmod.overlay;
+
+import colox.gridmod.config.RenderSettings;
+import necesse.gfx.gameTexture.GameTexture;
+
+/*
+// ===========================================================================
+// PURPOSE: Cached grid line layout for GridDrawable.
+// - The line style (thickness + color) of a tile column/row only depends on
+//   its index modulo the pattern period (chunk span, sub-chunk span, or 1).
+//   One period is rasterized once into a pixel row, with overlapping lines
+//   composited the same way separate blended draws would be.
+// - That row is repeated into two strips as wide/tall as the view plus one
+//   period: a 1px-high strip stretched to viewH for the vertical lines and a
+//   1px-wide strip stretched to viewW for the horizontal ones. Each frame
+//   they are only shifted by the camera offset modulo the period, so the
+//   grid costs two draws whatever the resolution or tile size.
+// - Rebuilt when the view size or one of the grid line fields (tile size,
+//   line/chunk/sub-chunk colors, alphas, thicknesses and spans) changes, not
+//   on every RenderSettings rebuild: picking a brush or toggling a layer
+//   filter bumps the settings version but leaves the strips as they are.
+// - If textures cannot be created (or the period would be huge) draw()
+//   returns false and GridDrawable draws the lines one by one.
+// Render thread only.
+// ===========================================================================
+*/
+final class GridLinePattern {
+    // Periods beyond this many tiles are not worth a strip (never hit with clamped settings)
+    private static final int MAX_PERIOD_TILES = 1024;
+
+    private GameTexture columns; // vertical lines, viewW + period wide, 1px high
+    private GameTexture rows;    // horizontal lines, 1px wide, viewH + period high
+    private RenderSettings built; // snapshot the strips were rasterized from
+    private int builtViewW = -1, builtViewH = -1;
+    private int periodPx;
+    private boolean usable;
+    private boolean unavailable;
+
+    /** Line style of tile column/row {@code index}: thickness, then r, g, b, a. */
+    static int styleOf(RenderSettings s, int index, float[] rgbaOut) {
+        boolean isChunk = s.showChunkLines && (index % s.chunkSpanTiles == 0);
+        boolean isSub = !isChunk && s.showSubChunkLines && (index % s.subChunkSpanTiles == 0);
+        if (isChunk) {
+            rgbaOut[0] = s.chunkR; rgbaOut[1] = s.chunkG; rgbaOut[2] = s.chunkB; rgbaOut[3] = s.chunkAlpha;
+            return s.chunkThickness;
+        }
+        if (isSub) {
+            rgbaOut[0] = s.subChunkR; rgbaOut[1] = s.subChunkG; rgbaOut[2] = s.subChunkB; rgbaOut[3] = s.subChunkAlpha;
+            return s.subChunkThickness;
+        }
+        rgbaOut[0] = s.lineR; rgbaOut[1] = s.lineG; rgbaOut[2] = s.lineB; rgbaOut[3] = s.lineAlpha;
+        return 1;
+    }
+
+    /** Draws all grid lines for the frame; false means the caller must draw them itself. */
+    boolean draw(FrameContext f) {
+        if (unavailable) return false;
+        RenderSettings s = f.settings;
+        if ((built != s && !sameLines(built, s)) || builtViewW != f.viewW || builtViewH != f.viewH) {
+            rebuild(s, f.viewW, f.viewH);
+        } else {
+            built = s; // only non-grid fields moved; later frames skip the comparison
+        }
+        if (!usable) return false;
+
+        int offX = -Math.floorMod(f.camX, periodPx);
+        int offY = -Math.floorMod(f.camY, periodPx);
+        f.sink.sprite(columns, offX, 0, f.viewW + periodPx, f.viewH, 1f, 1f, 1f, 1f);
+        f.sink.sprite(rows, 0, offY, f.viewW, f.viewH + periodPx, 1f, 1f, 1f, 1f);
+        return true;
+    }
+
+    /** Releases the strips (they are rebuilt on the next draw). */
+    void dispose() {
+        release();
+        built = null;
+    }
+
+    private void rebuild(RenderSettings s, int viewW, int viewH) {
+        release();
+        built = s;
+        builtViewW = viewW;
+        builtViewH = viewH;
+        usable = false;
+
+        int periodTiles = 1;
+        if (s.showChunkLines) periodTiles = lcm(periodTiles, s.chunkSpanTiles);
+        if (s.showSubChunkLines) periodTiles = lcm(periodTiles, s.subChunkSpanTiles);
+        if (periodTiles <= 0 || periodTiles > MAX_PERIOD_TILES || viewW <= 0 || viewH <= 0) return;
+        periodPx = periodTiles * s.tileSize;
+
+        try {
+            float[][] period = rasterizePeriod(s, periodTiles);
+            columns = strip(period, viewW + periodPx, true);
+            rows = strip(period, viewH + periodPx, false);
+            usable = true;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            release();
+            unavailable = true;
+        }
+    }
+
+    // True if both snapshots rasterize to the same strips
+    private static boolean sameLines(RenderSettings a, RenderSettings b) {
+        if (a == null) return false;
+        return a.tileSize == b.tileSize
+                && a.lineR == b.lineR && a.lineG == b.lineG && a.lineB == b.lineB && a.lineAlpha == b.lineAlpha
+                && a.showChunkLines == b.showChunkLines
+                && a.chunkSpanTiles == b.chunkSpanTiles && a.chunkThickness == b.chunkThickness
+                && a.chunkR == b.chunkR && a.chunkG == b.chunkG && a.chunkB == b.chunkB && a.chunkAlpha == b.chunkAlpha
+                && a.showSubChunkLines == b.showSubChunkLines
+                && a.subChunkSpanTiles == b.subChunkSpanTiles && a.subChunkThickness == b.subChunkThickness
+                && a.subChunkR == b.subChunkR && a.subChunkG == b.subChunkG && a.subChunkB == b.subChunkB
+                && a.subChunkAlpha == b.subChunkAlpha;
+    }
+
+    // One period of lines as non-premultiplied RGBA per pixel, composited in draw order
+    private float[][] rasterizePeriod(RenderSettings s, int periodTiles) {
+        float[][] px = new float[periodPx][4];
+        float[] rgba = new float[4];
+        for (int k = 0; k < periodTiles; k++) {
+            int thick = styleOf(s, k, rgba);
+            int start = k * s.tileSize;
+            for (int i = 0; i < thick; i++) {
+                over(px[(start + i) % periodPx], rgba);
+            }
+        }
+        return px;
+    }
+
+    private static void over(float[] dst, float[] src) {
+        float a = src[3];
+        float outA = a + dst[3] * (1f - a);
+        if (outA <= 0f) return;
+        for (int c = 0; c < 3; c++) {
+            dst[c] = (src[c] * a + dst[c] * dst[3] * (1f - a)) / outA;
+        }
+        dst[3] = outA;
+    }
+
+    private GameTexture strip(float[][] period, int length, boolean horizontal) {
+        GameTexture texture = horizontal
+                ? new GameTexture("gridmod-grid-columns", length, 1)
+                : new GameTexture("gridmod-grid-rows", 1, length);
+        for (int i = 0; i < length; i++) {
+            float[] p = period[i % periodPx];
+            int r = Math.round(p[0] * 255f), g = Math.round(p[1] * 255f), b = Math.round(p[2] * 255f);
+            int a = Math.round(p[3] * 255f);
+            if (horizontal) texture.setPixel(i, 0, r, g, b, a);
+            else texture.setPixel(0, i, r, g, b, a);
+        }
+        texture.makeFinal();
+        return texture;
+    }
+
+    private void release() {
+        usable = false;
+        if (columns != null) {
+            try { columns.delete(); } catch (Throwable ignored) {}
+            columns = null;
+        }
+        if (rows != null) {
+            try { rows.delete(); } catch (Throwable ignored) {}
+            rows = null;
+        }
+    }
+
+    private static int lcm(int a, int b) {
+        int x = a, y = b;
+        while (y != 0) { int t = x % y; x = y; y = t; }
+        long l = (long) a / x * b;
+        return l > Integer.MAX_VALUE ? -1 : (int) l;
+    }
+}
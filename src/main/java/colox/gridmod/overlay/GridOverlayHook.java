@@ -12,7 +12,6 @@ import necesse.level.maps.Level;
 import net.bytebuddy.asm.Advice;
 
 import colox.gridmod.paint.PaintControls;
-import colox.gridmod.paint.PaintDrawable;
 import colox.gridmod.config.GridConfig;
 
 @ModMethodPatch(
@@ -44,17 +43,24 @@ public class GridOverlayHook {
             // Per-frame input for painting/selection/placement
             PaintControls.tick(level, camera, perspective);
 
+            // Camera range, input and config snapshot, computed once and shared by all overlays
+            FrameContext frame = FrameContext.capture(camera);
+            QuadBatcher.nextFrame();
+
+            // Same drawable instances every frame (caches survive); new ones only on level change
+            OverlayDrawables.bind(level, camera, frame);
+
             // Grid
-            overlayList.add(100_000, new GridDrawable(level, camera));
+            overlayList.add(100_000, OverlayDrawables.grid());
 
             // Settlement bounds
             if (GridConfig.settlementEnabled) {
-                overlayList.add(100_005, new SettlementBoundsOverlay(level, camera));
+                overlayList.add(100_005, OverlayDrawables.settlement());
             }
 
             // Paint overlay appears only if paintVisible == true
             if (GridConfig.paintVisible) {
-                overlayList.add(100_010, new PaintDrawable(level, camera));
+                overlayList.add(100_010, OverlayDrawables.paint());
             }
         }
         return false;
@@ -21,6 +21,7 @@ public final class GridStyleControls {
             if (colox.gridmod.input.GridKeybinds.GRID_CHUNK_TOGGLE != null
                 && colox.gridmod.input.GridKeybinds.GRID_CHUNK_TOGGLE.isPressed()) {
                 colox.gridmod.config.GridConfig.showChunkLines = !colox.gridmod.config.GridConfig.showChunkLines;
+                colox.gridmod.config.GridConfig.markDirty();
             }
             if (colox.gridmod.input.GridKeybinds.GRID_CHUNK_SPAN != null
                 && colox.gridmod.input.GridKeybinds.GRID_CHUNK_SPAN.isPressed()) {
@@ -38,6 +39,7 @@ public final class GridStyleControls {
             if (colox.gridmod.input.GridKeybinds.GRID_SUBCHUNK_TOGGLE != null
                 && colox.gridmod.input.GridKeybinds.GRID_SUBCHUNK_TOGGLE.isPressed()) {
                 colox.gridmod.config.GridConfig.showSubChunkLines = !colox.gridmod.config.GridConfig.showSubChunkLines;
+                colox.gridmod.config.GridConfig.markDirty();
             }
             if (colox.gridmod.input.GridKeybinds.GRID_SUBCHUNK_ALPHA_PLUS != null
                 && colox.gridmod.input.GridKeybinds.GRID_SUBCHUNK_ALPHA_PLUS.isPressed()) {
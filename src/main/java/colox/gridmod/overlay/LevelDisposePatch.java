@@ -0,0 +1,26 @@
+package colox.gridmod.overlay;
+
+import necesse.engine.modLoader.annotations.ModMethodPatch;
+import necesse.level.maps.Level;
+import net.bytebuddy.asm.Advice;
+
+/*
+// ===========================================================================
+// PURPOSE: Notices the client's level going away when the player leaves the
+// world. The overlay hook stops running in the menu, so OverlayDrawables
+// cannot see that on its own; it ignores levels it is not drawing.
+// ===========================================================================
+*/
+@ModMethodPatch(
+        target = Level.class,
+        name = "dispose",
+        arguments = {}
+)
+public final class LevelDisposePatch {
+    private LevelDisposePatch() {}
+
+    @Advice.OnMethodEnter
+    static void onEnter(@Advice.This Level level) {
+        OverlayDrawables.levelDisposed(level);
+    }
+}
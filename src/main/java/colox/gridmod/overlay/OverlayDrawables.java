@@ -0,0 +1,90 @@
+package colox.gridmod.overlay;
+
+import java.lang.ref.WeakReference;
+
+import colox.gridmod.paint.PaintDrawable;
+import colox.gridmod.paint.PaintState;
+import necesse.gfx.camera.GameCamera;
+import necesse.level.maps.Level;
+
+/*
+// ===========================================================================
+// PURPOSE: Long-lived overlay drawables for the local player's level.
+// - GridOverlayHook used to allocate fresh drawables every frame, so nothing
+//   could be cached between frames. One instance of each now lives here and
+//   is rebound to the frame's level/camera before being queued.
+// - A different Level object (level change, world switch) drops all of them;
+//   the level is held weakly so a left level can still be collected.
+// - Leaving a level (switch, or LevelDisposePatch when the player quits to
+//   the menu) also flushes the debounced paint save, so an edit still in its
+//   quiet period is on disk before anything else can go wrong.
+// - bind() also hands every drawable the frame's shared FrameContext.
+// Public because the hook's advice is inlined into Necesse's Mob class.
+// ===========================================================================
+*/
+public final class OverlayDrawables {
+    private OverlayDrawables() {}
+
+    private static WeakReference<Level> boundLevel = new WeakReference<>(null);
+    private static GridDrawable grid;
+    private static SettlementBoundsOverlay settlement;
+    private static PaintDrawable paint;
+    private static GameCamera boundCamera;
+    private static FrameContext boundFrame;
+
+    /** Rebinds (or, on a new level, recreates) the overlays for this frame. */
+    public static void bind(Level level, GameCamera camera, FrameContext frame) {
+        if (boundLevel.get() != level) {
+            if (boundLevel.get() != null) PaintState.flushSave();
+            boundLevel = new WeakReference<>(level);
+            dropDrawables();
+        }
+        boundCamera = camera;
+        boundFrame = frame;
+        if (grid == null) grid = new GridDrawable(level, camera, frame);
+        else grid.bind(level, camera, frame);
+        if (settlement != null) settlement.bind(level, camera, frame);
+        if (paint != null) paint.bind(level, camera, frame);
+    }
+
+    public static GridDrawable grid() {
+        return grid;
+    }
+
+    public static SettlementBoundsOverlay settlement() {
+        if (settlement == null) settlement = new SettlementBoundsOverlay(boundLevel.get(), boundCamera, boundFrame);
+        return settlement;
+    }
+
+    public static PaintDrawable paint() {
+        if (paint == null) paint = new PaintDrawable(boundLevel.get(), boundCamera, boundFrame);
+        return paint;
+    }
+
+    /** The bound level is being disposed (quit to menu): flush paint and drop its drawables. */
+    public static void levelDisposed(Level level) {
+        if (level == null || boundLevel.get() != level) return; // not the level we draw (e.g. server side)
+        try {
+            PaintState.flushSave();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+        boundLevel = new WeakReference<>(null);
+        dropDrawables();
+    }
+
+    /** Forgets every instance (mod unload). */
+    public static void dispose() {
+        boundLevel = new WeakReference<>(null);
+        dropDrawables();
+        boundCamera = null;
+        boundFrame = null;
+    }
+
+    private static void dropDrawables() {
+        if (grid != null) grid.dispose();
+        grid = null;
+        settlement = null;
+        paint = null;
+    }
+}
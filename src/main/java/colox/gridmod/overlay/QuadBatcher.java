@@ -0,0 +1,189 @@
+package colox.gridmod.overlay;
+
+import java.util.Arrays;
+
+import necesse.gfx.gameTexture.GameTexture;
+
+/*
+// ===========================================================================
+// PURPOSE: Collects overlay rectangles and submits them with fewer draws.
+// - Callers add() quads under an ordering key (e.g. a PaintLayer's draw
+//   index) and flush() when the group is complete. Keys are drawn in
+//   ascending order; inside one key quads are regrouped by texture and color,
+//   so a key must only hold quads that do not overlap with a different
+//   color (paint marks of one layer, one tile per mark, qualify).
+// - Solid quads (no texture) of identical color that touch exactly
+//   along a full edge are merged into one rectangle: first along rows, then
+//   stacked rows with the same span. No area is ever covered twice more or
+//   less than before, so blending is unchanged.
+// - Necesse draws one quad per call; merging is what reduces the calls.
+// - flush(sink) emits into the frame's DrawSink.
+// - Counts quads added and draws issued per frame (nextFrame()) so the
+//   saving can be shown in the stats panel.
+// Render thread only. Public because GridOverlayHook (inlined into Necesse's
+// Mob) calls nextFrame().
+// ===========================================================================
+*/
+public final class QuadBatcher {
+    private QuadBatcher() {}
+
+    private static int count;
+    private static int[] key = new int[256];
+    private static int[] geom = new int[256 * 4];   // x, y, w, h
+    private static float[] rgba = new float[256 * 4];
+    private static GameTexture[] textures = new GameTexture[256]; // null = solid quad
+    private static int[] order = new int[256];
+    private static int[] scratch = new int[256];
+
+    // Per-frame counters: current frame and the last completed one
+    private static int frameQuads, frameDraws;
+    private static int lastFrameQuads, lastFrameDraws;
+
+    /** Adds a solid rectangle under ordering key {@code layerKey}. */
+    public static void add(int layerKey, int x, int y, int w, int h, float r, float g, float b, float a) {
+        put(layerKey, null, x, y, w, h, r, g, b, a);
+    }
+
+    /** Adds a tinted texture quad; only solid quads are ever merged. */
+    public static void add(int layerKey, GameTexture texture, int x, int y, int w, int h,
+                           float r, float g, float b, float a) {
+        if (texture != null) put(layerKey, texture, x, y, w, h, r, g, b, a);
+    }
+
+    private static void put(int layerKey, GameTexture texture, int x, int y, int w, int h,
+                            float r, float g, float b, float a) {
+        if (w <= 0 || h <= 0 || a <= 0f) return;
+        if (count == key.length) grow();
+        int i = count * 4;
+        key[count] = layerKey;
+        textures[count] = texture;
+        geom[i] = x; geom[i + 1] = y; geom[i + 2] = w; geom[i + 3] = h;
+        rgba[i] = r; rgba[i + 1] = g; rgba[i + 2] = b; rgba[i + 3] = a;
+        count++;
+    }
+
+    /** Draws everything added since the last flush into {@code sink}. */
+    public static void flush(DrawSink sink) {
+        if (count == 0) return;
+        frameQuads += count;
+
+        // Sort by key, texture, color, then row (y, h, x) so row neighbours end up adjacent
+        for (int i = 0; i < count; i++) order[i] = i;
+        sort(0, count, false);
+        int merged = mergeRuns(count, false);
+
+        // Then stack rows: sort the survivors by key, texture, color, column (x, w, y)
+        sort(0, merged, true);
+        merged = mergeRuns(merged, true);
+
+        for (int n = 0; n < merged; n++) {
+            int q = order[n], i = q * 4;
+            if (textures[q] == null) {
+                sink.quad(geom[i], geom[i + 1], geom[i + 2], geom[i + 3], rgba[i], rgba[i + 1], rgba[i + 2], rgba[i + 3]);
+            } else {
+                sink.sprite(textures[q], geom[i], geom[i + 1], geom[i + 2], geom[i + 3],
+                        rgba[i], rgba[i + 1], rgba[i + 2], rgba[i + 3]);
+            }
+        }
+        frameDraws += merged;
+        Arrays.fill(textures, 0, count, null);
+        count = 0;
+    }
+
+    /** Rolls the counters over to a new frame (called once per frame by the overlay hook). */
+    public static void nextFrame() {
+        lastFrameQuads = frameQuads;
+        lastFrameDraws = frameDraws;
+        frameQuads = 0;
+        frameDraws = 0;
+    }
+
+    /** Quads handed to the batcher in the last complete frame. */
+    public static int getLastFrameQuads() { return lastFrameQuads; }
+
+    /** Engine draw calls the batcher issued in the last complete frame. */
+    public static int getLastFrameDraws() { return lastFrameDraws; }
+
+    // Collapses order[0..n) in place: a quad swallows the following one when both are solid,
+    // share key and color, and the next one continues it exactly along a row (or column).
+    private static int mergeRuns(int n, boolean vertical) {
+        int out = 0;
+        for (int k = 0; k < n; k++) {
+            int q = order[k];
+            if (out > 0) {
+                int p = order[out - 1];
+                if (textures[p] == null && textures[q] == null && key[p] == key[q] && sameColor(p, q)) {
+                    int pi = p * 4, qi = q * 4;
+                    if (!vertical && geom[pi + 1] == geom[qi + 1] && geom[pi + 3] == geom[qi + 3]
+                            && geom[pi] + geom[pi + 2] == geom[qi]) {
+                        geom[pi + 2] += geom[qi + 2];
+                        continue;
+                    }
+                    if (vertical && geom[pi] == geom[qi] && geom[pi + 2] == geom[qi + 2]
+                            && geom[pi + 1] + geom[pi + 3] == geom[qi + 1]) {
+                        geom[pi + 3] += geom[qi + 3];
+                        continue;
+                    }
+                }
+            }
+            order[out++] = q;
+        }
+        return out;
+    }
+
+    private static boolean sameColor(int p, int q) {
+        int pi = p * 4, qi = q * 4;
+        return rgba[pi] == rgba[qi] && rgba[pi + 1] == rgba[qi + 1]
+                && rgba[pi + 2] == rgba[qi + 2] && rgba[pi + 3] == rgba[qi + 3];
+    }
+
+    // Stable merge sort of order[from..to)
+    private static void sort(int from, int to, boolean byColumn) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        sort(from, mid, byColumn);
+        sort(mid, to, byColumn);
+        if (compare(order[mid - 1], order[mid], byColumn) <= 0) return;
+        System.arraycopy(order, from, scratch, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            order[k++] = (compare(scratch[j], scratch[i], byColumn) < 0) ? scratch[j++] : scratch[i++];
+        }
+        while (i < mid) order[k++] = scratch[i++];
+        while (j < to) order[k++] = scratch[j++];
+    }
+
+    private static int compare(int p, int q, boolean byColumn) {
+        if (key[p] != key[q]) return Integer.compare(key[p], key[q]);
+        if (textures[p] != textures[q]) {
+            return Integer.compare(textureOrder(textures[p]), textureOrder(textures[q]));
+        }
+        int pi = p * 4, qi = q * 4;
+        for (int c = 0; c < 4; c++) {
+            int cmp = Float.compare(rgba[pi + c], rgba[qi + c]);
+            if (cmp != 0) return cmp;
+        }
+        if (byColumn) {
+            if (geom[pi] != geom[qi]) return Integer.compare(geom[pi], geom[qi]);
+            if (geom[pi + 2] != geom[qi + 2]) return Integer.compare(geom[pi + 2], geom[qi + 2]);
+            return Integer.compare(geom[pi + 1], geom[qi + 1]);
+        }
+        if (geom[pi + 1] != geom[qi + 1]) return Integer.compare(geom[pi + 1], geom[qi + 1]);
+        if (geom[pi + 3] != geom[qi + 3]) return Integer.compare(geom[pi + 3], geom[qi + 3]);
+        return Integer.compare(geom[pi], geom[qi]);
+    }
+
+    private static int textureOrder(GameTexture texture) {
+        return texture == null ? 0 : System.identityHashCode(texture) | 1;
+    }
+
+    private static void grow() {
+        int n = key.length * 2;
+        key = Arrays.copyOf(key, n);
+        geom = Arrays.copyOf(geom, n * 4);
+        rgba = Arrays.copyOf(rgba, n * 4);
+        textures = Arrays.copyOf(textures, n);
+        order = Arrays.copyOf(order, n);
+        scratch = Arrays.copyOf(scratch, n);
+    }
+}
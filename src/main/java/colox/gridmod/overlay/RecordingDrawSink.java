@@ -0,0 +1,89 @@
+package colox.gridmod.overlay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import necesse.gfx.gameFont.FontOptions;
+import necesse.gfx.gameTexture.GameTexture;
+
+/**
+ * Headless {@link DrawSink} that keeps every primitive in order (and counts like
+ * {@link CountingDrawSink}), for comparing what two render paths emit.
+ */
+public class RecordingDrawSink extends CountingDrawSink {
+    public enum Kind { QUAD, SPRITE, HUD_QUAD, TEXT }
+
+    /** One emitted primitive; {@code texture} is set for sprites, {@code text} for text. */
+    public static final class Op {
+        public final Kind kind;
+        public final int x, y, w, h;
+        public final float r, g, b, a;
+        public final GameTexture texture;
+        public final String text;
+
+        Op(Kind kind, int x, int y, int w, int h, float r, float g, float b, float a,
+           GameTexture texture, String text) {
+            this.kind = kind;
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+            this.r = r;
+            this.g = g;
+            this.b = b;
+            this.a = a;
+            this.texture = texture;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return kind + "(" + x + "," + y + " " + w + "x" + h + " rgba=" + r + "," + g + "," + b + "," + a
+                    + (text != null ? " \"" + text + "\"" : "") + ")";
+        }
+    }
+
+    private final List<Op> ops = new ArrayList<>();
+
+    public RecordingDrawSink() {
+        super();
+    }
+
+    public RecordingDrawSink(int charWidth, int lineHeight) {
+        super(charWidth, lineHeight);
+    }
+
+    public List<Op> ops() {
+        return ops;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        ops.clear();
+    }
+
+    @Override
+    public void quad(int x, int y, int w, int h, float r, float g, float b, float a) {
+        super.quad(x, y, w, h, r, g, b, a);
+        ops.add(new Op(Kind.QUAD, x, y, w, h, r, g, b, a, null, null));
+    }
+
+    @Override
+    public void sprite(GameTexture texture, int x, int y, int w, int h, float r, float g, float b, float a) {
+        super.sprite(texture, x, y, w, h, r, g, b, a);
+        ops.add(new Op(Kind.SPRITE, x, y, w, h, r, g, b, a, texture, null));
+    }
+
+    @Override
+    public void hudQuad(int x, int y, int w, int h, float r, float g, float b, float a) {
+        super.hudQuad(x, y, w, h, r, g, b, a);
+        ops.add(new Op(Kind.HUD_QUAD, x, y, w, h, r, g, b, a, null, null));
+    }
+
+    @Override
+    public void text(float x, float y, String text, FontOptions font) {
+        super.text(x, y, text, font);
+        ops.add(new Op(Kind.TEXT, Math.round(x), Math.round(y), 0, 0, 1f, 1f, 1f, 1f, null, text));
+    }
+}
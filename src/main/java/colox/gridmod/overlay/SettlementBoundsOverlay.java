@@ -3,8 +3,8 @@ package colox.gridmod.overlay;
 import java.awt.Rectangle;
 
 import colox.gridmod.config.GridConfig;
+import colox.gridmod.config.RenderSettings;
 import necesse.engine.gameLoop.tickManager.TickManager;
-import necesse.gfx.GameResources;
 import necesse.gfx.camera.GameCamera;
 import necesse.gfx.drawables.Drawable;
 import necesse.level.maps.Level;
@@ -13,25 +13,35 @@ import necesse.level.maps.levelData.settlementData.SettlementBoundsManager;
 public class SettlementBoundsOverlay implements Drawable {
 
     @SuppressWarnings("unused")
-    private final Level level;
-    private final GameCamera camera;
+    private Level level;
+    @SuppressWarnings("unused")
+    private GameCamera camera;
+    private FrameContext frame;
+
+    public SettlementBoundsOverlay(Level level, GameCamera camera, FrameContext frame) {
+        bind(level, camera, frame);
+    }
 
-    public SettlementBoundsOverlay(Level level, GameCamera camera) {
+    /** Points this long-lived instance at the current frame's level, camera and FrameContext. */
+    public void bind(Level level, GameCamera camera, FrameContext frame) {
         this.level = level;
         this.camera = camera;
+        this.frame = frame;
     }
 
     @Override
     public void draw(TickManager tickManager) {
         if (!GridConfig.settlementEnabled) return;
 
-        final int tilePx = GridConfig.tileSize;
+        final FrameContext f = frame;
+        final RenderSettings s = f.settings;
+        final int tilePx = f.tileSize;
 
         // Camera rect
-        final int camX = camera.getX();
-        final int camY = camera.getY();
-        final int camW = camera.getWidth();
-        final int camH = camera.getHeight();
+        final int camX = f.camX;
+        final int camY = f.camY;
+        final int camW = f.viewW;
+        final int camH = f.viewH;
 
         Rectangle tileRect = getSettlementTileRectangle();
         if (tileRect == null) return;
@@ -49,32 +59,28 @@ public class SettlementBoundsOverlay implements Drawable {
         if (px > camW || py > camH || px + pw < -1 || py + ph < -1) return;
 
         // Colors
-        final float r = GridConfig.sbr;
-        final float g = GridConfig.sbg;
-        final float b = GridConfig.sbb;
+        final float r = s.settlementR;
+        final float g = s.settlementG;
+        final float b = s.settlementB;
 
         // Fill
-        final float fa = clamp01(GridConfig.settlementFillAlpha);
+        final float fa = clamp01(s.settlementFillAlpha);
         if (fa > 0.001f) {
-            GameResources.empty.initDraw()
-                .size(Math.max(1, pw), Math.max(1, ph))
-                .pos(px, py, false)
-                .color(r, g, b, fa)
-                .draw();
+            f.sink.quad(px, py, Math.max(1, pw), Math.max(1, ph), r, g, b, fa);
         }
 
         // Outline
-        final float oa = clamp01(GridConfig.settlementOutlineAlpha);
-        final int thick = Math.max(1, GridConfig.settlementOutlineThickness);
+        final float oa = clamp01(s.settlementOutlineAlpha);
+        final int thick = Math.max(1, s.settlementOutlineThickness);
         if (oa > 0.001f) {
             // top
-            GameResources.empty.initDraw().size(Math.max(1, pw), thick).pos(px, py, false).color(r, g, b, oa).draw();
+            f.sink.quad(px, py, Math.max(1, pw), thick, r, g, b, oa);
             // bottom
-            GameResources.empty.initDraw().size(Math.max(1, pw), thick).pos(px, py + ph - thick, false).color(r, g, b, oa).draw();
+            f.sink.quad(px, py + ph - thick, Math.max(1, pw), thick, r, g, b, oa);
             // left
-            GameResources.empty.initDraw().size(thick, Math.max(1, ph)).pos(px, py, false).color(r, g, b, oa).draw();
+            f.sink.quad(px, py, thick, Math.max(1, ph), r, g, b, oa);
             // right
-            GameResources.empty.initDraw().size(thick, Math.max(1, ph)).pos(px + pw - thick, py, false).color(r, g, b, oa).draw();
+            f.sink.quad(px + pw - thick, py, thick, Math.max(1, ph), r, g, b, oa);
         }
     }
 
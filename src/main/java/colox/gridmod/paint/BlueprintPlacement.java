@@ -9,11 +9,14 @@ public final class BlueprintPlacement {
     public static final class BlueprintTile {
         public final int dx;
         public final int dy;
-        public final String categoryId;
-        public BlueprintTile(int dx, int dy, String categoryId) {
+        public final PaintCategory category;
+        public BlueprintTile(int dx, int dy, PaintCategory category) {
             this.dx = dx;
             this.dy = dy;
-            this.categoryId = categoryId;
+            this.category = (category == null) ? PaintCategory.defaultCategory() : category;
+        }
+        public BlueprintTile(int dx, int dy, String categoryId) {
+            this(dx, dy, PaintCategory.byId(categoryId));
         }
     }
 
@@ -21,6 +24,8 @@ public final class BlueprintPlacement {
     public static boolean active = false;
 
     private static final List<BlueprintTile> rel = new ArrayList<>();
+    // Bumped whenever the loaded tiles change, so per-frame readers can cache
+    private static int generation = 0;
 
     // Transform state
     private static int rot = 0;           // 0,90,180,270 (clockwise)
@@ -29,6 +34,7 @@ public final class BlueprintPlacement {
     public static void begin(List<BlueprintTile> relativeTiles) {
         rel.clear();
         rel.addAll(relativeTiles);
+        generation++;
         rot = 0;
         flip = false;
         active = true;
@@ -38,6 +44,7 @@ public final class BlueprintPlacement {
     public static void cancel() {
         active = false;
         rel.clear();
+        generation++;
     }
 
     public static void rotateCW() {
@@ -75,7 +82,7 @@ public final class BlueprintPlacement {
                 default:  rx =  dx; ry =  dy; break; // 0°
             }
 
-            out.add(new BlueprintTile(ax + rx, ay + ry, p.categoryId));
+            out.add(new BlueprintTile(ax + rx, ay + ry, p.category));
         }
         return out;
     }
@@ -88,6 +95,10 @@ public final class BlueprintPlacement {
         return rel.size();
     }
 
+    static int getGeneration() {
+        return generation;
+    }
+
     public static List<BlueprintTile> snapshotRelativeTiles() {
         return new ArrayList<>(rel);
     }
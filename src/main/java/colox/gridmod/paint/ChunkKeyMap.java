@@ -0,0 +1,118 @@
+package colox.gridmod.paint;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from packed chunk coordinates ({@link PaintChunk#key}) to {@code V}.
+ * Keys stay primitive so lookups never box; iteration walks the slot table
+ * directly via {@link #capacity()} / {@link #valueAt(int)}.
+ */
+class ChunkKeyMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    ChunkKeyMap() {
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    final int size() { return size; }
+    final int capacity() { return values.length; }
+
+    /** Slot accessor for allocation-free iteration; null for empty slots. */
+    @SuppressWarnings("unchecked")
+    final V valueAt(int slot) { return (V) values[slot]; }
+
+    @SuppressWarnings("unchecked")
+    final V get(int cx, int cy) {
+        long k = PaintChunk.key(cx, cy);
+        int slot = slot(k);
+        Object v;
+        while ((v = values[slot]) != null) {
+            if (keys[slot] == k) return (V) v;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /** Inserts or replaces; {@code value} must not be null. */
+    final void put(int cx, int cy, V value) {
+        long k = PaintChunk.key(cx, cy);
+        int slot = slot(k);
+        while (values[slot] != null) {
+            if (keys[slot] == k) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = k;
+        values[slot] = value;
+        if (++size * 2 > values.length) grow();
+    }
+
+    @SuppressWarnings("unchecked")
+    final V remove(int cx, int cy) {
+        long k = PaintChunk.key(cx, cy);
+        int slot = slot(k);
+        Object v;
+        while ((v = values[slot]) != null) {
+            if (keys[slot] == k) {
+                values[slot] = null;
+                size--;
+                shiftBack(slot);
+                return (V) v;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    final void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones.
+    private void shiftBack(int hole) {
+        int slot = (hole + 1) & mask;
+        Object v;
+        while ((v = values[slot]) != null) {
+            int home = slot(keys[slot]);
+            boolean movable = (slot > hole) ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = v;
+                values[slot] = null;
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            Object v = oldValues[i];
+            if (v == null) continue;
+            int slot = slot(oldKeys[i]);
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = v;
+        }
+    }
+
+    private int slot(long k) {
+        long h = k * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+}
@@ -10,14 +10,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 /*
 // ===========================================================================
 // PURPOSE: Relative + Global blueprint IO.
-// Phase 5 addition: saveSelectionAs(...) that saves from an arbitrary subset.
+// Phase 5 addition: saveSelectionAs(...) that saves the current selection.
+// Selection saves walk SelectionState's bitmap and read the chunks directly.
 // SEARCH ANCHORS:
 //   [BP] relative save/load
 //   [BP] selection save
@@ -45,9 +45,9 @@ public final class PaintBlueprints {
 
     /** Save all current paint as relative (unchanged behavior). */
     public static void saveBlueprint(String name) {
-        List<long[]> selection = SelectionState.getSelectedPoints();
-        if (!selection.isEmpty()) {
-            saveBlueprintFromSelection(name, selection);
+        SelectionState.loadSelectedRegions();
+        if (SelectionState.getSelectedCount() > 0) {
+            saveBlueprintFromSelection(name);
             return;
         }
         saveEntireBlueprint(name);
@@ -58,6 +58,7 @@ public final class PaintBlueprints {
         File file = fileFor(name);
 
         try {
+            PaintState.loadAllRegions();
             List<PaintState.PaintEntry> pts = PaintState.iterateSnapshot();
             if (pts.isEmpty()) {
                 return;
@@ -70,18 +71,11 @@ public final class PaintBlueprints {
                 if (y < minY) minY = y;
             }
 
-            StringBuilder sb = new StringBuilder(pts.size() * 8);
+            PaintFileFormat.Tiles tiles = relativeTiles(minX, minY);
             for (PaintState.PaintEntry p : pts) {
-                int x = p.x - minX;
-                int y = p.y - minY;
-                sb.append(x).append(',').append(y).append(',').append(p.categoryId).append(';');
+                tiles.add(p.x - minX, p.y - minY, p.category);
             }
-
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", sb.toString());
-            sd.addInt("normX", minX);
-            sd.addInt("normY", minY);
-            sd.saveScript(file);
+            writeTiles(file, tiles);
 
         } catch (Throwable t) {
             t.printStackTrace();
@@ -98,7 +92,7 @@ public final class PaintBlueprints {
             return rel;
         }
         try {
-            rel.addAll(readBlueprint(new LoadData(file)));
+            rel.addAll(toBlueprintTiles(readTiles(file)));
         } catch (Throwable t) {
             t.printStackTrace();
         }
@@ -108,17 +102,38 @@ public final class PaintBlueprints {
     public static List<colox.gridmod.paint.BlueprintPlacement.BlueprintTile> loadFromStream(InputStream in) {
         if (in == null) return Collections.emptyList();
         try {
-            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-            return readBlueprint(new LoadData(script));
+            byte[] data = in.readAllBytes();
+            if (PaintFileFormat.isBinary(data)) {
+                return toBlueprintTiles(PaintFileFormat.read(data));
+            }
+            String script = new String(data, StandardCharsets.UTF_8);
+            return toBlueprintTiles(readLegacyTiles(new LoadData(script)));
         } catch (Throwable t) {
             t.printStackTrace();
         }
         return Collections.emptyList();
     }
 
-    private static List<colox.gridmod.paint.BlueprintPlacement.BlueprintTile> readBlueprint(LoadData ld) {
-        List<colox.gridmod.paint.BlueprintPlacement.BlueprintTile> rel = new ArrayList<>();
-        if (ld == null) return rel;
+    // ---------- [BP] file format --------------------------------------------
+    // Blueprints are written as binary .gridpaint v2 (see PaintFileFormat); files
+    // without the magic header are v1 SaveData scripts and still load.
+
+    private static List<colox.gridmod.paint.BlueprintPlacement.BlueprintTile> toBlueprintTiles(PaintFileFormat.Tiles tiles) {
+        List<colox.gridmod.paint.BlueprintPlacement.BlueprintTile> rel = new ArrayList<>(tiles.size);
+        for (int i = 0; i < tiles.size; i++) {
+            rel.add(new colox.gridmod.paint.BlueprintPlacement.BlueprintTile(tiles.xs[i], tiles.ys[i], tiles.cats[i]));
+        }
+        return rel;
+    }
+
+    private static PaintFileFormat.Tiles readTiles(File file) throws IOException {
+        if (PaintFileFormat.isBinary(file)) return PaintFileFormat.read(file);
+        return readLegacyTiles(new LoadData(file));
+    }
+
+    private static PaintFileFormat.Tiles readLegacyTiles(LoadData ld) {
+        PaintFileFormat.Tiles tiles = new PaintFileFormat.Tiles();
+        if (ld == null) return tiles;
         String points = ld.getSafeString("points", "");
         if (!points.isEmpty()) {
             String[] pairs = points.split(";");
@@ -126,13 +141,49 @@ public final class PaintBlueprints {
                 if (pair.isEmpty()) continue;
                 String[] xy = pair.split(",");
                 if (xy.length < 2) continue;
-                int dx = Integer.parseInt(xy[0].trim());
-                int dy = Integer.parseInt(xy[1].trim());
-                String cat = (xy.length >= 3) ? xy[2].trim() : GridConfig.getActivePaintCategory().id();
-                rel.add(new colox.gridmod.paint.BlueprintPlacement.BlueprintTile(dx, dy, cat));
+                int x = Integer.parseInt(xy[0].trim());
+                int y = Integer.parseInt(xy[1].trim());
+                PaintCategory cat = (xy.length >= 3) ? PaintCategory.byId(xy[2].trim()) : GridConfig.getActivePaintCategory();
+                tiles.add(x, y, cat);
             }
         }
-        return rel;
+        return tiles;
+    }
+
+    private static PaintFileFormat.Tiles relativeTiles(int normX, int normY) {
+        PaintFileFormat.Tiles tiles = new PaintFileFormat.Tiles();
+        tiles.props.put("normX", Integer.toString(normX));
+        tiles.props.put("normY", Integer.toString(normY));
+        return tiles;
+    }
+
+    private static PaintFileFormat.Tiles globalTiles(int count) {
+        PaintFileFormat.Tiles tiles = new PaintFileFormat.Tiles();
+        tiles.props.put("type", "global");
+        tiles.props.put("count", Integer.toString(count));
+        return tiles;
+    }
+
+    private static void writeTiles(File file, PaintFileFormat.Tiles tiles) throws Exception {
+        PaintSaveWriter.replaceAtomically(file, f -> PaintFileFormat.write(f, tiles));
+    }
+
+    /** Old "x,y,category;" SaveData script; props become ints where they parse as one. */
+    private static void writeLegacyText(File file, PaintFileFormat.Tiles tiles) throws Exception {
+        StringBuilder sb = new StringBuilder(tiles.size * 12);
+        for (int i = 0; i < tiles.size; i++) {
+            sb.append(tiles.xs[i]).append(',').append(tiles.ys[i]).append(',').append(tiles.cats[i].id()).append(';');
+        }
+        SaveData sd = new SaveData("paint_blueprint");
+        sd.addSafeString("points", sb.toString());
+        for (java.util.Map.Entry<String, String> e : tiles.props.entrySet()) {
+            try {
+                sd.addInt(e.getKey(), Integer.parseInt(e.getValue()));
+            } catch (NumberFormatException notInt) {
+                sd.addSafeString(e.getKey(), e.getValue());
+            }
+        }
+        PaintSaveWriter.replaceAtomically(file, sd::saveScript);
     }
 
     public static String[] listBlueprints() {
@@ -162,11 +213,7 @@ public final class PaintBlueprints {
         File f = fileFor(name);
         if (f.exists()) return false;
         try {
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", "");
-            sd.addInt("normX", 0);
-            sd.addInt("normY", 0);
-            sd.saveScript(f);
+            writeTiles(f, relativeTiles(0, 0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -198,17 +245,11 @@ public final class PaintBlueprints {
                 if (tile.dx < minX) minX = tile.dx;
                 if (tile.dy < minY) minY = tile.dy;
             }
-            StringBuilder sb = new StringBuilder(tiles.size() * 8);
+            PaintFileFormat.Tiles out = relativeTiles(minX, minY);
             for (BlueprintPlacement.BlueprintTile tile : tiles) {
-                int relX = tile.dx - minX;
-                int relY = tile.dy - minY;
-                sb.append(relX).append(',').append(relY).append(',').append(tile.categoryId).append(';');
+                out.add(tile.dx - minX, tile.dy - minY, tile.category);
             }
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", sb.toString());
-            sd.addInt("normX", minX);
-            sd.addInt("normY", minY);
-            sd.saveScript(f);
+            writeTiles(f, out);
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -243,40 +284,28 @@ public final class PaintBlueprints {
     // ---------- [BP] selection save (Phase 5) --------------------------------
 
     /**
-     * Saves a relative blueprint from an arbitrary subset of ABSOLUTE points.
-     * Returns number of tiles written.
+     * Saves the current selection as a relative blueprint, every painted layer of each
+     * selected tile. Returns number of entries written.
      */
-    public static int saveSelectionAs(String name, Collection<long[]> absPoints) {
+    public static int saveSelectionAs(String name) {
         ensureDir();
         File file = fileFor(name);
-        if (absPoints == null || absPoints.isEmpty()) {
+        SelectionState.loadSelectedRegions();
+        int[] bounds = new int[4];
+        if (!SelectionState.getSelectedBounds(bounds)) {
             return 0;
         }
-        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
-        for (long[] p : absPoints) {
-            int x = (int)p[0], y = (int)p[1];
-            if (x < minX) minX = x;
-            if (y < minY) minY = y;
-        }
-        StringBuilder sb = new StringBuilder(absPoints.size() * 12);
-        java.util.HashSet<Long> selected = new java.util.HashSet<>(absPoints.size());
-        for (long[] p : absPoints) selected.add(key((int)p[0], (int)p[1]));
-        int written = 0;
-        for (PaintState.PaintEntry entry : PaintState.iterateSnapshot()) {
-            long k = key(entry.x, entry.y);
-            if (!selected.contains(k)) continue;
-            int x = entry.x - minX;
-            int y = entry.y - minY;
-            sb.append(x).append(',').append(y).append(',').append(entry.categoryId).append(';');
-            written++;
-        }
+        int minX = bounds[0], minY = bounds[1];
+        PaintFileFormat.Tiles tiles = relativeTiles(minX, minY);
+        int[] written = new int[1];
+        PaintState.TileVisitor add = (tx, ty, layer, category) -> {
+            tiles.add(tx - minX, ty - minY, category);
+            written[0]++;
+        };
+        SelectionState.forEachSelected((tx, ty) -> PaintState.forEachAt(tx, ty, PaintLayerFilter.ALL, add));
         try {
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", sb.toString());
-            sd.addInt("normX", minX);
-            sd.addInt("normY", minY);
-            sd.saveScript(file);
-            return written;
+            writeTiles(file, tiles);
+            return written[0];
         } catch (Throwable t) {
             t.printStackTrace();
             return 0;
@@ -311,11 +340,7 @@ public final class PaintBlueprints {
         File f = globalFileFor(name);
         if (f.exists()) return false;
         try {
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", "");
-            sd.addSafeString("type", "global");
-            sd.addInt("count", 0);
-            sd.saveScript(f);
+            writeTiles(f, globalTiles(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -328,17 +353,8 @@ public final class PaintBlueprints {
         File f = globalFileFor(name);
         int count = 0;
         try {
-            List<PaintState.PaintEntry> pts = PaintState.iterateSnapshot();
-            StringBuilder sb = new StringBuilder(pts.size() * 14);
-            for (PaintState.PaintEntry p : pts) {
-                sb.append(p.x).append(',').append(p.y).append(',').append(p.categoryId).append(';');
-            }
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", sb.toString());
-            sd.addSafeString("type", "global");
-            sd.addInt("count", pts.size());
-            sd.saveScript(f);
-            count = pts.size();
+            writeTiles(f, snapshotGlobalTiles());
+            count = PaintState.getEntryCount();
         } catch (Throwable t) {
             t.printStackTrace();
         }
@@ -353,29 +369,28 @@ public final class PaintBlueprints {
         }
         int restored = 0;
         try {
-            LoadData ld = new LoadData(f);
-            String points = ld.getSafeString("points", "");
-            PaintState.clear();
-            if (!points.isEmpty()) {
-                String[] pairs = points.split(";");
-                for (String pair : pairs) {
-                    if (pair.isEmpty()) continue;
-                    String[] xy = pair.split(",");
-                    if (xy.length < 2) continue;
-                    int x = Integer.parseInt(xy[0].trim());
-                    int y = Integer.parseInt(xy[1].trim());
-                    String cat = (xy.length >= 3) ? xy[2].trim() : GridConfig.getActivePaintCategory().id();
-                    PaintState.add(x, y, cat);
-                    restored++;
-                }
-            }
-            PaintState.saveIfDirty();
+            restored = restoreGlobal(readTiles(f));
         } catch (Throwable t) {
             t.printStackTrace();
         }
         return restored;
     }
 
+    private static PaintFileFormat.Tiles snapshotGlobalTiles() {
+        PaintState.loadAllRegions();
+        List<PaintState.PaintEntry> pts = PaintState.iterateSnapshot();
+        PaintFileFormat.Tiles tiles = globalTiles(pts.size());
+        for (PaintState.PaintEntry p : pts) tiles.add(p.x, p.y, p.category);
+        return tiles;
+    }
+
+    private static int restoreGlobal(PaintFileFormat.Tiles tiles) {
+        PaintState.clear();
+        PaintState.addAll(tiles.xs, tiles.ys, tiles.cats, tiles.size);
+        PaintState.saveIfDirty();
+        return tiles.size;
+    }
+
     public static boolean deleteGlobal(String name) {
         ensureGlobalDir();
         File f = globalFileFor(name);
@@ -417,16 +432,7 @@ public final class PaintBlueprints {
         ensureDir();
         File file = legacyGlobalFile();
         try {
-            List<PaintState.PaintEntry> pts = PaintState.iterateSnapshot();
-            StringBuilder sb = new StringBuilder(pts.size() * 14);
-            for (PaintState.PaintEntry p : pts) {
-                sb.append(p.x).append(',').append(p.y).append(',').append(p.categoryId).append(';');
-            }
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", sb.toString());
-            sd.addSafeString("type", "global");
-            sd.addInt("count", pts.size());
-            sd.saveScript(file);
+            writeTiles(file, snapshotGlobalTiles());
         } catch (Throwable t) {
             t.printStackTrace();
         }
@@ -437,73 +443,66 @@ public final class PaintBlueprints {
         if (!file.exists()) return 0;
         int restored = 0;
         try {
-            LoadData ld = new LoadData(file);
-            String points = ld.getSafeString("points", "");
-            PaintState.clear();
-            if (!points.isEmpty()) {
-                String[] pairs = points.split(";");
-                for (String pair : pairs) {
-                    if (pair.isEmpty()) continue;
-                    String[] xy = pair.split(",");
-                    if (xy.length < 2) continue;
-                    int x = Integer.parseInt(xy[0].trim());
-                    int y = Integer.parseInt(xy[1].trim());
-                    String catId = (xy.length >= 3) ? xy[2].trim() : GridConfig.getActivePaintCategory().id();
-                    PaintState.add(x, y, catId);
-                    restored++;
-                }
-            }
-            PaintState.saveIfDirty();
+            restored = restoreGlobal(readTiles(file));
         } catch (Throwable t) {
             t.printStackTrace();
         }
         return restored;
     }
 
+    // ---------- [BP] text export ----------------------------------------------
+
+    /**
+     * Writes {@code <name>.gridpaint.txt} in the old text format next to the relative blueprint.
+     * Returns the file, or null if the blueprint is missing or the write failed.
+     */
+    public static File exportLegacyText(String name) {
+        ensureDir();
+        return exportLegacyText(fileFor(name), new File(DIR, safeName(name) + ".gridpaint.txt"));
+    }
+
+    /** Same as {@link #exportLegacyText(String)} for a global blueprint. */
+    public static File exportGlobalLegacyText(String name) {
+        ensureGlobalDir();
+        return exportLegacyText(globalFileFor(name), new File(GLOBAL_DIR, safeName(name) + ".gridpaint.txt"));
+    }
+
+    private static File exportLegacyText(File src, File dst) {
+        if (!src.exists()) return null;
+        try {
+            writeLegacyText(dst, readTiles(src));
+            return dst;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return null;
+        }
+    }
+
     static String safeName(String name) {
         return name.replaceAll("[^a-zA-Z0-9-_\\.]", "_");
     }
 
-    private static void saveBlueprintFromSelection(String name, List<long[]> selection) {
+    // Top painted category of each selected tile, relative to the selection's bounds
+    private static void saveBlueprintFromSelection(String name) {
         ensureDir();
         File file = fileFor(name);
 
         try {
-            if (selection.isEmpty()) {
+            int[] bounds = new int[4];
+            if (!SelectionState.getSelectedBounds(bounds)) {
                 return;
             }
 
-            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
-            for (long[] pt : selection) {
-                int x = (int)pt[0];
-                int y = (int)pt[1];
-                if (x < minX) minX = x;
-                if (y < minY) minY = y;
-            }
-
-            StringBuilder sb = new StringBuilder(selection.size() * 8);
-            for (long[] pt : selection) {
-                int tx = (int)pt[0];
-                int ty = (int)pt[1];
-                PaintState.PaintEntry entry = PaintState.getPaintEntry(tx, ty);
-                if (entry == null) continue;
-                int x = tx - minX;
-                int y = ty - minY;
-                sb.append(x).append(',').append(y).append(',').append(entry.categoryId).append(';');
-            }
-
-            SaveData sd = new SaveData("paint_blueprint");
-            sd.addSafeString("points", sb.toString());
-            sd.addInt("normX", minX);
-            sd.addInt("normY", minY);
-            sd.saveScript(file);
+            int minX = bounds[0], minY = bounds[1];
+            PaintFileFormat.Tiles tiles = relativeTiles(minX, minY);
+            SelectionState.forEachSelected((tx, ty) -> {
+                PaintCategory category = PaintState.topCategory(tx, ty);
+                if (category != null) tiles.add(tx - minX, ty - minY, category);
+            });
+            writeTiles(file, tiles);
 
         } catch (Throwable t) {
             t.printStackTrace();
         }
     }
-
-    private static long key(int x, int y) {
-        return ((long)x << 32) | (y & 0xffffffffL);
-    }
 }
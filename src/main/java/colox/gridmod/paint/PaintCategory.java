@@ -1,6 +1,8 @@
 package colox.gridmod.paint;
 
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Defines the selectable paint categories and their default colors.
@@ -29,6 +31,10 @@ public enum PaintCategory {
     MASONRY("masonry", "Masonry / Structural", 0.80f, 0.80f, 0.85f, 0.50f, PaintLayer.OBJECT, PaintStyle.INSET_RECT),
     OTHER_OBJECTS("other_objects", "Other Objects", 0.50f, 0.50f, 0.95f, 0.50f, PaintLayer.OBJECT, PaintStyle.INSET_RECT);
 
+    private static final PaintCategory[] VALUES = values();
+    // Canonical ids plus legacy aliases, resolved once at parse time.
+    private static final Map<String, PaintCategory> LOOKUP = buildLookup();
+
     private final String id;
     private final String label;
     private final float defR, defG, defB, defA;
@@ -74,12 +80,18 @@ public enum PaintCategory {
 
     public static PaintCategory byId(String id) {
         if (id == null || id.isEmpty()) return defaultCategory();
-        String needle = id.trim().toLowerCase(Locale.ROOT);
-        if ("tiles".equals(needle)) return FLOORS; // legacy alias
-        if ("lighting".equals(needle)) return LIGHTING_FLOOR; // legacy single lighting entry
-        for (PaintCategory cat : values()) {
-            if (cat.id.equals(needle)) return cat;
+        PaintCategory hit = LOOKUP.get(id);
+        if (hit == null) hit = LOOKUP.get(id.trim().toLowerCase(Locale.ROOT));
+        return hit == null ? defaultCategory() : hit;
+    }
+
+    private static Map<String, PaintCategory> buildLookup() {
+        Map<String, PaintCategory> map = new HashMap<>();
+        for (PaintCategory cat : VALUES) {
+            map.put(cat.id, cat);
         }
-        return defaultCategory();
+        map.put("tiles", FLOORS);             // legacy alias
+        map.put("lighting", LIGHTING_FLOOR);  // legacy single lighting entry
+        return map;
     }
 }
@@ -0,0 +1,62 @@
+package colox.gridmod.paint;
+
+/**
+ * Fixed-size ring of (version, tile bounds) records, one per edit batch. Lets caches ask
+ * "what area changed since version v" without holding per-tile history. Once a caller falls
+ * further behind than the ring holds, the answer degrades to "everything".
+ */
+final class PaintChangeLog {
+    private static final int CAPACITY = 256;
+
+    private final long[] versions = new long[CAPACITY];
+    private final int[] minX = new int[CAPACITY], minY = new int[CAPACITY];
+    private final int[] maxX = new int[CAPACITY], maxY = new int[CAPACITY];
+    private int head;   // next write slot
+    private int size;
+    // Oldest version we can still answer for exactly (anything at or after it)
+    private long horizon;
+
+    void record(long version, int x0, int y0, int x1, int y1) {
+        if (size == CAPACITY) horizon = versions[head];
+        versions[head] = version;
+        minX[head] = x0; minY[head] = y0;
+        maxX[head] = x1; maxY[head] = y1;
+        head = (head + 1) % CAPACITY;
+        if (size < CAPACITY) size++;
+    }
+
+    /** Drops history; later queries from before {@code version} report everything changed. */
+    void reset(long version) {
+        size = 0;
+        head = 0;
+        horizon = version;
+    }
+
+    /**
+     * Union of bounds recorded after {@code since} into {@code out} as {minX, minY, maxX, maxY}.
+     * Returns false if nothing changed; when history is gone the bounds span the whole int range.
+     */
+    boolean boundsSince(long since, long current, int[] out) {
+        if (since >= current) return false;
+        if (since < horizon) {
+            out[0] = Integer.MIN_VALUE; out[1] = Integer.MIN_VALUE;
+            out[2] = Integer.MAX_VALUE; out[3] = Integer.MAX_VALUE;
+            return true;
+        }
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE;
+        int x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        boolean any = false;
+        for (int i = 0, slot = head - 1; i < size; i++, slot--) {
+            if (slot < 0) slot += CAPACITY;
+            if (versions[slot] <= since) break;
+            any = true;
+            if (minX[slot] < x0) x0 = minX[slot];
+            if (minY[slot] < y0) y0 = minY[slot];
+            if (maxX[slot] > x1) x1 = maxX[slot];
+            if (maxY[slot] > y1) y1 = maxY[slot];
+        }
+        if (!any) return false;
+        out[0] = x0; out[1] = y0; out[2] = x1; out[3] = y1;
+        return true;
+    }
+}
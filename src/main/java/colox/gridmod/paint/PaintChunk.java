@@ -0,0 +1,208 @@
+package colox.gridmod.paint;
+
+import java.util.Arrays;
+
+/**
+ * Fixed 32x32 block of painted tiles. Each layer owns one dense {@code byte[]}
+ * holding {@code category.ordinal() + 1} per tile (0 = empty). Layer arrays are
+ * allocated on first write so a floor-only chunk costs ~1 KB.
+ * <p>
+ * Alongside, every category present in the chunk has a 1024-bit occupancy bitmap
+ * (bit {@code index(lx, ly)}), kept in step by {@link #set} and {@link #fill}, so
+ * "tiles of category X" is a word scan instead of a pass over every layer.
+ */
+final class PaintChunk {
+    static final int SHIFT = 5;
+    static final int SIZE = 1 << SHIFT;
+    static final int MASK = SIZE - 1;
+    static final int AREA = SIZE * SIZE;
+
+    private static final int LAYER_COUNT = PaintLayer.values().length;
+    private static final int CODE_COUNT = PaintCategory.values().length + 1;
+    // Layer ordinal of each category code (index 0 = empty, unused)
+    private static final int[] CODE_LAYER = new int[CODE_COUNT];
+    static {
+        PaintCategory[] categories = PaintCategory.values();
+        for (int i = 0; i < categories.length; i++) CODE_LAYER[i + 1] = categories[i].layer().ordinal();
+    }
+    static final int BIT_WORDS = AREA / 64;
+
+    final int cx;
+    final int cy;
+    private final byte[][] layers = new byte[LAYER_COUNT][];
+    private final int[] layerCounts = new int[LAYER_COUNT];
+    private int entryCount;
+    private final long[][] categoryBits = new long[CODE_COUNT][]; // by code, null when absent
+    private final int[] categoryCounts = new int[CODE_COUNT];
+    /** PaintState version of the last edit that touched this chunk. */
+    long version;
+
+    PaintChunk(int cx, int cy) {
+        this.cx = cx;
+        this.cy = cy;
+    }
+
+    static int chunkCoord(int tile) { return tile >> SHIFT; }
+    static int local(int tile)      { return tile & MASK; }
+    static int index(int lx, int ly) { return (ly << SHIFT) | lx; }
+    static long key(int cx, int cy) { return ((long)cx << 32) | (cy & 0xffffffffL); }
+
+    /** Offset from a chunk origin clamped to 0..MASK; long so world-sized rectangles cannot overflow. */
+    static int clampLocal(long offset) { return (int) Math.max(0L, Math.min(MASK, offset)); }
+
+    int originX() { return cx << SHIFT; }
+    int originY() { return cy << SHIFT; }
+
+    /** Raw category code (ordinal + 1, 0 = empty) for a layer ordinal at a local index. */
+    int get(int layer, int idx) {
+        byte[] data = layers[layer];
+        return data == null ? 0 : (data[idx] & 0xff);
+    }
+
+    /** Stores a category code and returns the previous one. A code of 0 clears the tile. */
+    int set(int layer, int idx, int code) {
+        byte[] data = layers[layer];
+        if (data == null) {
+            if (code == 0) return 0;
+            data = layers[layer] = new byte[AREA];
+        }
+        int prev = data[idx] & 0xff;
+        if (prev == code) return prev;
+        data[idx] = (byte) code;
+        if (prev != 0) clearBit(prev, idx);
+        if (code != 0) setBit(code, idx);
+        if (prev == 0) {
+            layerCounts[layer]++;
+            entryCount++;
+        } else if (code == 0) {
+            entryCount--;
+            if (--layerCounts[layer] == 0) layers[layer] = null;
+        }
+        return prev;
+    }
+
+    /**
+     * Writes one code into the inclusive local rectangle and returns how many tiles changed.
+     * Counters are adjusted once per call instead of per tile. {@code replaced[prevCode]} is
+     * incremented for every non-empty tile that was overwritten or cleared.
+     */
+    int fill(int layer, int lx0, int ly0, int lx1, int ly1, int code, int[] replaced) {
+        byte[] data = layers[layer];
+        if (data == null) {
+            if (code == 0) return 0;
+            data = layers[layer] = new byte[AREA];
+        }
+        byte value = (byte) code;
+        int changed = 0, delta = 0;
+        for (int ly = ly0; ly <= ly1; ly++) {
+            int row = ly << SHIFT;
+            for (int i = row + lx0, end = row + lx1; i <= end; i++) {
+                int prev = data[i] & 0xff;
+                if (prev == code) continue;
+                data[i] = value;
+                changed++;
+                if (code != 0) setBit(code, i);
+                if (prev == 0) {
+                    delta++;
+                } else {
+                    clearBit(prev, i);
+                    replaced[prev]++;
+                    if (code == 0) delta--;
+                }
+            }
+        }
+        layerCounts[layer] += delta;
+        entryCount += delta;
+        if (layerCounts[layer] == 0) layers[layer] = null;
+        return changed;
+    }
+
+    private void setBit(int code, int idx) {
+        long[] bits = categoryBits[code];
+        if (bits == null) bits = categoryBits[code] = new long[BIT_WORDS];
+        bits[idx >> 6] |= 1L << idx;
+        categoryCounts[code]++;
+    }
+
+    private void clearBit(int code, int idx) {
+        categoryBits[code][idx >> 6] &= ~(1L << idx);
+        if (--categoryCounts[code] == 0) categoryBits[code] = null;
+    }
+
+    boolean hasLayer(int layer) { return layerCounts[layer] > 0; }
+    int layerCount(int layer)   { return layerCounts[layer]; }
+    int entryCount()            { return entryCount; }
+    boolean isEmpty()           { return entryCount == 0; }
+
+    /** True if any layer is painted at the local index. */
+    boolean isOccupied(int idx) {
+        for (int l = 0; l < LAYER_COUNT; l++) {
+            byte[] data = layers[l];
+            if (data != null && data[idx] != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Local bounds {minLx, minLy, maxLx, maxLy} of tiles painted on any layer into {@code out}.
+     * Returns false for an empty chunk.
+     */
+    boolean localBounds(int[] out) {
+        int minLx = SIZE, minLy = SIZE, maxLx = -1, maxLy = -1;
+        for (int l = 0; l < LAYER_COUNT; l++) {
+            byte[] data = layers[l];
+            if (data == null) continue;
+            for (int i = 0; i < AREA; i++) {
+                if (data[i] == 0) continue;
+                int lx = i & MASK, ly = i >> SHIFT;
+                if (lx < minLx) minLx = lx;
+                if (lx > maxLx) maxLx = lx;
+                if (ly < minLy) minLy = ly;
+                if (ly > maxLy) maxLy = ly;
+            }
+        }
+        if (maxLx < 0) return false;
+        out[0] = minLx; out[1] = minLy; out[2] = maxLx; out[3] = maxLy;
+        return true;
+    }
+
+    /** Direct access for tight loops; may be null when the layer is empty. */
+    byte[] layerData(int layer) { return layers[layer]; }
+
+    /** Tiles painted with a category code in this chunk. */
+    int categoryCount(int code) { return categoryCounts[code]; }
+
+    /** Occupancy bitmap of a category code ({@link #BIT_WORDS} words); null when absent. Do not modify. */
+    long[] categoryBits(int code) { return categoryBits[code]; }
+
+    /**
+     * Occupancy bitmap of the layers in {@code layerMask} (OR of their categories' bitmaps) into
+     * {@code out} ({@link #BIT_WORDS} words). Returns false, leaving {@code out} zeroed, when none match.
+     */
+    boolean occupancyWords(int layerMask, long[] out) {
+        Arrays.fill(out, 0L);
+        boolean any = false;
+        for (int code = 1; code < CODE_COUNT; code++) {
+            long[] bits = categoryBits[code];
+            if (bits == null || (layerMask & (1 << CODE_LAYER[code])) == 0) continue;
+            for (int w = 0; w < BIT_WORDS; w++) out[w] |= bits[w];
+            any = true;
+        }
+        return any;
+    }
+
+    /** Detached copy (layer arrays cloned) for handing to another thread. */
+    PaintChunk copy() {
+        PaintChunk c = new PaintChunk(cx, cy);
+        for (int l = 0; l < LAYER_COUNT; l++) {
+            if (layers[l] != null) c.layers[l] = layers[l].clone();
+            c.layerCounts[l] = layerCounts[l];
+        }
+        for (int k = 0; k < CODE_COUNT; k++) {
+            if (categoryBits[k] != null) c.categoryBits[k] = categoryBits[k].clone();
+            c.categoryCounts[k] = categoryCounts[k];
+        }
+        c.entryCount = entryCount;
+        return c;
+    }
+}
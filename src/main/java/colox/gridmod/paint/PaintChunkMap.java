@@ -0,0 +1,15 @@
+package colox.gridmod.paint;
+
+/**
+ * {@link ChunkKeyMap} of the resident {@link PaintChunk}s, with chunks created on first write.
+ */
+final class PaintChunkMap extends ChunkKeyMap<PaintChunk> {
+    PaintChunk getOrCreate(int cx, int cy) {
+        PaintChunk chunk = get(cx, cy);
+        if (chunk == null) {
+            chunk = new PaintChunk(cx, cy);
+            put(cx, cy, chunk);
+        }
+        return chunk;
+    }
+}
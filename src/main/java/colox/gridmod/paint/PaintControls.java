@@ -5,6 +5,7 @@ import colox.gridmod.input.GridKeybinds;
 import colox.gridmod.ui.GridUI; // UI-safe gate
 import colox.gridmod.ui.PaintQuickPaletteOverlay;
 import necesse.engine.GlobalData;
+import necesse.engine.input.Control;
 import necesse.engine.input.Input;
 import necesse.engine.input.InputPosition;
 import necesse.engine.state.State;
@@ -31,8 +32,12 @@ public final class PaintControls {
     private static PlayerMob currentPlayer;
 
     public static void tick(Level level, GameCamera camera, PlayerMob player) {
+        // Debounced saves come due on their own: pump before any input gate can return early
+        PaintSaveWriter.pump();
+        PaintStroke.onTick();
         PaintQuickPaletteOverlay.tick(PaintState.enabled);
         PaintState.ensureWorldSynced();
+        PaintState.streamAround(camera);
 
         currentLevel = level;
         currentPlayer = player;
@@ -120,7 +125,7 @@ public final class PaintControls {
                 int[] tile = MouseTileUtil.getMouseTile(tileSize);
                 if (tile != null) {
                     List<BlueprintPlacement.BlueprintTile> abs = BlueprintPlacement.transformedAt(tile[0], tile[1]);
-                    for (BlueprintPlacement.BlueprintTile p : abs) PaintState.add(p.dx, p.dy, p.categoryId);
+                    PaintState.addAll(abs);
                     PaintState.markDirty();
                     PaintState.saveIfDirty();
                     suppressPaintUntilLmbUp = true;
@@ -161,8 +166,9 @@ public final class PaintControls {
 
         if (anyHeld && tile != null) {
             boolean doErase = rightHeld || eraseModHeld;
-            String catId = GridConfig.getActivePaintCategory().id();
-            Painter.applyAt(tile[0], tile[1], doErase, catId, GridConfig.getEffectivePaintEraseFilter());
+            PaintStroke.sample(tile[0], tile[1], doErase, GridConfig.getActivePaintCategory(), GridConfig.getEffectivePaintEraseFilter());
+        } else {
+            PaintStroke.end();
         }
 
         PaintState.saveIfDirty();
@@ -292,8 +298,12 @@ public final class PaintControls {
         boolean lmbDown    = input.isKeyDown(-100);
         boolean lmbUpEdge  = (!lmbDown && !lmbPressed);
 
+        if (GridKeybinds.SELECT_INVERT != null && GridKeybinds.SELECT_INVERT.isPressed()) {
+            SelectionState.invert();
+        }
+
         if (SelectionState.getMode() != SelectionState.Mode.ALL && lmbPressed && tile != null && !SelectionState.isDragging()) {
-            SelectionState.beginDrag(tile[0], tile[1]);
+            SelectionState.beginDrag(tile[0], tile[1], heldCombineOp(input));
         }
 
         if (SelectionState.getMode() != SelectionState.Mode.ALL && SelectionState.isDragging() && lmbDown && tile != null) {
@@ -307,6 +317,22 @@ public final class PaintControls {
         if (SelectionState.getMode() == SelectionState.Mode.ALL) {
             SelectionState.refreshSelection();
         }
+
+        // Large WAND regions grow over several ticks
+        SelectionState.stepWand();
+    }
+
+    /** Combine op forced by a held selection modifier, or null to use the sticky one. */
+    private static SelectionState.CombineOp heldCombineOp(Input input) {
+        if (isHeld(input, GridKeybinds.SELECT_ADD_MOD))       return SelectionState.CombineOp.ADD;
+        if (isHeld(input, GridKeybinds.SELECT_SUBTRACT_MOD))  return SelectionState.CombineOp.SUBTRACT;
+        if (isHeld(input, GridKeybinds.SELECT_INTERSECT_MOD)) return SelectionState.CombineOp.INTERSECT;
+        return null;
+    }
+
+    private static boolean isHeld(Input input, Control control) {
+        int key = (control != null) ? control.getKey() : -1;
+        return key != -1 && input.isKeyDown(key);
     }
 
     private static boolean syncFlagFromCurrentSettlement() {
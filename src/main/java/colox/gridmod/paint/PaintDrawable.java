@@ -1,30 +1,28 @@
 package colox.gridmod.paint;
 
 import colox.gridmod.config.GridConfig;
-import colox.gridmod.input.GridKeybinds;
+import colox.gridmod.config.RenderSettings;
+import colox.gridmod.overlay.DrawSink;
+import colox.gridmod.overlay.FrameContext;
+import colox.gridmod.overlay.QuadBatcher;
 import necesse.engine.gameLoop.tickManager.TickManager;
-import necesse.engine.input.Input;
-import necesse.engine.window.GameWindow;
-import necesse.engine.window.WindowManager;
-import necesse.gfx.GameResources;
 import necesse.gfx.camera.GameCamera;
-import necesse.gfx.Renderer;
-import necesse.gfx.gameFont.FontManager;
 import necesse.gfx.gameFont.FontOptions;
+import necesse.gfx.gameTexture.GameTexture;
 import necesse.level.maps.Level;
 
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 public class PaintDrawable implements necesse.gfx.drawables.Drawable {
     @SuppressWarnings("unused")
-    private final Level level;
-    private final GameCamera camera;
+    private Level level;
+    @SuppressWarnings("unused")
+    private GameCamera camera;
+    private FrameContext frame;
     private static final FontOptions HOVER_FONT = new FontOptions(18)
             .outline()
             .colorf(1f, 1f, 1f, 1f)
@@ -40,9 +38,67 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
     private static final int HUD_INDICATOR_SIZE = 10;
     private static final int HUD_SECTION_GAP = 6;
 
-    public PaintDrawable(Level level, GameCamera camera) {
+    private final PaintMarks.QuadOut immediateQuads = new PaintMarks.QuadOut() {
+        @Override
+        public void quad(int x, int y, int w, int h, float r, float g, float b, float a) {
+            drawRect(x, y, w, h, r, g, b, a);
+        }
+
+        @Override
+        public void glyph(PaintStyle style, int x, int y, int size, float r, float g, float b, float a) {
+            GameTexture sprite = PaintGlyphAtlas.texture(style, size);
+            if (sprite == null) {
+                PaintMarks.emitStyle(style, x, y, size, r, g, b, a, this);
+                return;
+            }
+            frame.sink.sprite(sprite, x, y, size, size, r, g, b, a);
+        }
+    };
+
+    // Same marks, collected into QuadBatcher under batchKey (highlights drawn per tile)
+    private int batchKey;
+    private final PaintMarks.QuadOut batchedQuads = new PaintMarks.QuadOut() {
+        @Override
+        public void quad(int x, int y, int w, int h, float r, float g, float b, float a) {
+            QuadBatcher.add(batchKey, x, y, w, h, r, g, b, a);
+        }
+
+        @Override
+        public void glyph(PaintStyle style, int x, int y, int size, float r, float g, float b, float a) {
+            GameTexture sprite = PaintGlyphAtlas.texture(style, size);
+            if (sprite == null) {
+                PaintMarks.emitStyle(style, x, y, size, r, g, b, a, this);
+                return;
+            }
+            QuadBatcher.add(batchKey, sprite, x, y, size, size, r, g, b, a);
+        }
+    };
+
+    // Hover scratch, refilled each frame: the categories under the cursor that may show a label
+    private final PaintCategory[] hoverCats = new PaintCategory[PaintLayer.values().length];
+    private int hoverCount;
+
+    // Hover highlight colors for hoverHighlightVisitor, set before each walk
+    private int hlCamX, hlCamY, hlTileSize;
+    private PaintCategory hlCategory;
+    private float hlR, hlG, hlB, hlA, hlEdgeA;
+    private final PaintState.TileVisitor hoverHighlightVisitor = (tx, ty, layer, cat) -> {
+        int px = tx * hlTileSize - hlCamX;
+        int py = ty * hlTileSize - hlCamY;
+        batchKey = 0;
+        PaintMarks.emit(px, py, hlTileSize, hlCategory, hlR, hlG, hlB, hlA, batchedQuads);
+        addCellEdges(1, px, py, hlTileSize, hlR, hlG, hlB, hlEdgeA);
+    };
+
+    public PaintDrawable(Level level, GameCamera camera, FrameContext frame) {
+        bind(level, camera, frame);
+    }
+
+    /** Points this long-lived instance at the current frame's level, camera and FrameContext. */
+    public void bind(Level level, GameCamera camera, FrameContext frame) {
         this.level = level;
         this.camera = camera;
+        this.frame = frame;
     }
 
     @Override
@@ -50,95 +106,63 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
         // Safety: visibility gate (also gated in hook)
         if (!GridConfig.paintVisible) return;
 
-        final int tileSize = GridConfig.tileSize;
-
-        // Colors from config
-        PaintCategory activeCategory = GridConfig.getActivePaintCategory();
-        GridConfig.PaintColor paintColor = GridConfig.getPaintColor(activeCategory);
-        final float pA = paintColor.a;
-        final float pR = paintColor.r, pG = paintColor.g, pB = paintColor.b;
-        final float eA = GridConfig.eraseAlpha;
-        final float eR = GridConfig.eraseR, eG = GridConfig.eraseG, eB = GridConfig.eraseB;
-        final float sA = GridConfig.selectionAlpha;
-        final float sR = GridConfig.selectionR, sG = GridConfig.selectionG, sB = GridConfig.selectionB;
-
-        int camX = camera.getX();
-        int camY = camera.getY();
-        int viewW = camera.getWidth();
-        int viewH = camera.getHeight();
-        int startTileX = camX / tileSize - 1;
-        int startTileY = camY / tileSize - 1;
-        int endTileX   = (camX + viewW) / tileSize + 1;
-        int endTileY   = (camY + viewH) / tileSize + 1;
-
-        List<PaintState.PaintEntry> snapshot = PaintState.iterateSnapshot();
-        int[] mouseTile = MouseTileUtil.getMouseTile(tileSize);
-        boolean hoverMasterEnabled = GridConfig.isHoverLabelsEnabled();
-        List<PaintCategory> hoverCategories = Collections.emptyList();
-        int hoverPx = 0;
-        int hoverPy = 0;
-        if (hoverMasterEnabled && mouseTile != null) {
-            List<PaintState.PaintEntry> entries = PaintState.getPaintEntries(mouseTile[0], mouseTile[1]);
-            if (!entries.isEmpty()) {
-                List<PaintCategory> acceptedCats = new ArrayList<>(entries.size());
-                for (PaintState.PaintEntry entry : entries) {
-                    PaintCategory cat = PaintCategory.byId(entry.categoryId);
-                    if (!GridConfig.isHoverCategoryAllowed(cat)) continue;
-                    acceptedCats.add(cat);
-                }
-                if (!acceptedCats.isEmpty()) {
-                    hoverCategories = acceptedCats;
-                    hoverPx = mouseTile[0] * tileSize - camX;
-                    hoverPy = mouseTile[1] * tileSize - camY;
-                }
+        final FrameContext f = frame;
+        final RenderSettings settings = f.settings;
+        final int tileSize = f.tileSize;
+
+        // Colors from the frame's render settings
+        final float pA = settings.paintA;
+        final float pR = settings.paintR, pG = settings.paintG, pB = settings.paintB;
+        final float eA = settings.eraseA;
+        final float eR = settings.eraseR, eG = settings.eraseG, eB = settings.eraseB;
+        final float sA = settings.selectionA;
+        final float sR = settings.selectionR, sG = settings.selectionG, sB = settings.selectionB;
+
+        int camX = f.camX;
+        int camY = f.camY;
+        int viewW = f.viewW;
+        int viewH = f.viewH;
+        int startTileX = f.startTileX;
+        int startTileY = f.startTileY;
+        int endTileX   = f.endTileX;
+        int endTileY   = f.endTileY;
+
+        final boolean hasMouse = f.hasMouseTile;
+        final int mouseTx = f.mouseTx;
+        final int mouseTy = f.mouseTy;
+        hoverCount = 0;
+        if (settings.hoverLabelsEnabled && hasMouse) {
+            int n = PaintState.categoriesAt(mouseTx, mouseTy, hoverCats);
+            for (int i = 0; i < n; i++) {
+                PaintCategory cat = hoverCats[i];
+                if (settings.isHoverAllowed(cat)) hoverCats[hoverCount++] = cat;
             }
         }
-        PaintCategory hoverHighlight = hoverCategories.isEmpty() ? null : hoverCategories.get(0);
-        // committed paint tiles
-        for (PaintState.PaintEntry p : snapshot) {
-            int tx = p.x;
-            int ty = p.y;
-            if (tx < startTileX || tx > endTileX || ty < startTileY || ty > endTileY) continue;
-
-            int px = tx * tileSize - camX;
-            int py = ty * tileSize - camY;
-            PaintCategory cat = PaintCategory.byId(p.categoryId);
-            GridConfig.PaintColor color = GridConfig.getPaintColor(cat);
-            drawPaintMark(px, py, tileSize, cat, color.r, color.g, color.b, color.a);
-        }
+        int hoverPx = mouseTx * tileSize - camX;
+        int hoverPy = mouseTy * tileSize - camY;
+        PaintCategory hoverHighlight = hoverCount == 0 ? null : hoverCats[0];
+        // committed paint tiles: cached per chunk, replayed with the camera offset
+        PaintRenderCache.draw(f);
 
         if (hoverHighlight != null) {
-            drawHoverCategoryHighlight(snapshot, hoverHighlight, camX, camY, tileSize,
+            drawHoverCategoryHighlight(hoverHighlight, camX, camY, tileSize,
                     startTileX, endTileX, startTileY, endTileY);
         }
 
         // brush preview (only when painting and not placing/choosing selection)
         if (PaintState.enabled && !BlueprintPlacement.active && !SelectionState.isActive()) {
-            int[] tile = mouseTile;
-            if (tile != null) {
+            if (hasMouse) {
                 int s = PaintState.getBrush();
                 int half = (s - 1) / 2;
-                int tx0 = tile[0] - half;
-                int ty0 = tile[1] - half;
+                int tx0 = mouseTx - half;
+                int ty0 = mouseTy - half;
                 int x = tx0 * tileSize - camX;
                 int y = ty0 * tileSize - camY;
                 int w = s * tileSize;
                 int h = s * tileSize;
 
                 // If erase modifier or RMB is held, preview in erase color
-                boolean erasePreview = false;
-                try {
-                    Input input = WindowManager.getWindow() != null ? WindowManager.getWindow().getInput() : null;
-                    if (input != null) {
-                        // Right mouse held
-                        try { if (input.isKeyDown(-99) || input.isPressed(-99)) erasePreview = true; } catch (Throwable ignored) {}
-                        // Erase mod key held
-                        int eraseKey = (GridKeybinds.PAINT_ERASE_MOD != null) ? GridKeybinds.PAINT_ERASE_MOD.getKey() : -1;
-                        if (eraseKey != -1) {
-                            try { if (input.isKeyDown(eraseKey)) erasePreview = true; } catch (Throwable ignored) {}
-                        }
-                    }
-                } catch (Throwable ignored) {}
+                boolean erasePreview = f.rightMouseDown || f.eraseModifierDown;
 
                 float rr = erasePreview ? eR : pR;
                 float gg = erasePreview ? eG : pG;
@@ -146,27 +170,26 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
                 float aa = erasePreview ? eA : pA;
                 float oa = Math.min(1f, aa + 0.2f);
 
-                GameResources.empty.initDraw().size(w, 2).pos(x, y, false).color(rr, gg, bb, oa).draw();
-                GameResources.empty.initDraw().size(w, 2).pos(x, y + h - 2, false).color(rr, gg, bb, oa).draw();
-                GameResources.empty.initDraw().size(2, h).pos(x, y, false).color(rr, gg, bb, oa).draw();
-                GameResources.empty.initDraw().size(2, h).pos(x + w - 2, y, false).color(rr, gg, bb, oa).draw();
+                f.sink.quad(x, y, w, 2, rr, gg, bb, oa);
+                f.sink.quad(x, y + h - 2, w, 2, rr, gg, bb, oa);
+                f.sink.quad(x, y, 2, h, rr, gg, bb, oa);
+                f.sink.quad(x + w - 2, y, 2, h, rr, gg, bb, oa);
             }
         }
 
-        drawCategoryCounter(snapshot);
+        drawCategoryCounter();
 
         // blueprint ghost while placing
         if (BlueprintPlacement.active) {
-            int[] anchor = mouseTile;
-            if (anchor != null) {
-                List<BlueprintPlacement.BlueprintTile> ghost = BlueprintPlacement.transformedAt(anchor[0], anchor[1]);
+            if (hasMouse) {
+                List<BlueprintPlacement.BlueprintTile> ghost = BlueprintPlacement.transformedAt(mouseTx, mouseTy);
                 for (BlueprintPlacement.BlueprintTile t : ghost) {
                     int tx = t.dx, ty = t.dy;
                     if (tx < startTileX || tx > endTileX || ty < startTileY || ty > endTileY) continue;
                     int px = tx * tileSize - camX;
                     int py = ty * tileSize - camY;
-                    PaintCategory cat = PaintCategory.byId(t.categoryId);
-                    GridConfig.PaintColor color = GridConfig.getPaintColor(cat);
+                    PaintCategory cat = t.category;
+                    GridConfig.PaintColor color = settings.color(cat);
                     float ga = Math.min(1f, color.a + 0.25f);
                     drawPaintMark(px, py, tileSize, cat, color.r, color.g, color.b, ga);
                 }
@@ -175,19 +198,13 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
 
         // selection highlight (selected cells after release)
         if (SelectionState.getSelectedCount() > 0) {
-            PaintLayerFilter selectionFilter = GridConfig.getPaintSelectionFilter();
-            for (long[] p : SelectionState.getSelectedPoints()) {
-                int tx = (int)p[0], ty = (int)p[1];
-                if (tx < startTileX || tx > endTileX || ty < startTileY || ty > endTileY) continue;
-                int px = tx * tileSize - camX;
-                int py = ty * tileSize - camY;
-                List<PaintState.PaintEntry> entries = PaintState.getPaintEntries(tx, ty);
-                for (PaintState.PaintEntry entry : entries) {
-                    if (!selectionFilter.matches(entry.layer)) continue;
-                    PaintCategory cat = PaintCategory.byId(entry.categoryId);
-                    drawSelectionHighlight(px, py, tileSize, cat);
-                }
-            }
+            final PaintLayerFilter selFilter = settings.paintSelectionFilter;
+            final PaintState.TileVisitor highlight = (tx, ty, layer, cat) ->
+                    drawSelectionHighlight(tx * tileSize - camX, ty * tileSize - camY, tileSize, cat);
+            // Only the selection's chunks in view are walked
+            SelectionState.forEachSelectedInRect(startTileX, startTileY, endTileX, endTileY,
+                    (tx, ty) -> PaintState.forEachAt(tx, ty, selFilter, highlight));
+            QuadBatcher.flush(f.sink);
         }
 
         // selection outline while dragging
@@ -208,21 +225,16 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
                     int w = (xmax - xmin + 1) * tileSize;
                     int h = (ymax - ymin + 1) * tileSize;
 
-                    GameResources.empty.initDraw().size(w, 2).pos(x, y, false).color(sR, sG, sB, oa).draw();
-                    GameResources.empty.initDraw().size(w, 2).pos(x, y + h - 2, false).color(sR, sG, sB, oa).draw();
-                    GameResources.empty.initDraw().size(2, h).pos(x, y, false).color(sR, sG, sB, oa).draw();
-                    GameResources.empty.initDraw().size(2, h).pos(x + w - 2, y, false).color(sR, sG, sB, oa).draw();
+                    f.sink.quad(x, y, w, 2, sR, sG, sB, oa);
+                    f.sink.quad(x, y + h - 2, w, 2, sR, sG, sB, oa);
+                    f.sink.quad(x, y, 2, h, sR, sG, sB, oa);
+                    f.sink.quad(x + w - 2, y, 2, h, sR, sG, sB, oa);
                     break;
                 }
                 case EDGE:
                 case EDGE_FILL: {
-                    for (long[] p : SelectionState.getHoverStrokePoints()) {
-                        int tx = (int)p[0], ty = (int)p[1];
-                        if (tx < startTileX || tx > endTileX || ty < startTileY || ty > endTileY) continue;
-                        int x = tx * tileSize - camX;
-                        int y = ty * tileSize - camY;
-                        drawCellEdges(x, y, tileSize, sR, sG, sB, oa);
-                    }
+                    SelectionState.forEachStrokeTileInRect(startTileX, startTileY, endTileX, endTileY,
+                            (tx, ty) -> drawCellEdges(tx * tileSize - camX, ty * tileSize - camY, tileSize, sR, sG, sB, oa));
                     break;
                 }
                 case LASSO_FILL: {
@@ -242,63 +254,63 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
             }
         }
 
-        if (!hoverCategories.isEmpty()) {
-            drawHoverTooltip(hoverCategories, hoverPx, hoverPy, tileSize, viewW, viewH);
+        if (hoverCount > 0) {
+            drawHoverTooltip(hoverCats, hoverCount, hoverPx, hoverPy, tileSize, viewW, viewH);
         }
     }
 
     private void drawSelectionHighlight(int px, int py, int tileSize, PaintCategory category) {
-        GridConfig.PaintColor base = GridConfig.getPaintColor(category);
+        GridConfig.PaintColor base = frame.settings.color(category);
         float hiR = Math.min(1f, base.r + 0.15f);
         float hiG = Math.min(1f, base.g + 0.15f);
         float hiB = Math.min(1f, base.b + 0.15f);
         float hiA = Math.min(1f, base.a + 0.35f);
         float edgeA = Math.min(1f, hiA + 0.15f) * category.layer().alphaScale();
-        drawPaintMark(px, py, tileSize, category, hiR, hiG, hiB, hiA);
-        drawCellEdges(px, py, tileSize, hiR, hiG, hiB, edgeA);
+        // Batched: per layer, all fills then all edges (tiles never overlap each other)
+        int key = category.layer().drawOrder() * 2;
+        batchKey = key;
+        PaintMarks.emit(px, py, tileSize, category, hiR, hiG, hiB, hiA, batchedQuads);
+        addCellEdges(key + 1, px, py, tileSize, hiR, hiG, hiB, edgeA);
     }
 
-    private void drawHoverCategoryHighlight(List<PaintState.PaintEntry> snapshot,
-                                            PaintCategory category,
+    private void drawHoverCategoryHighlight(PaintCategory category,
                                             int camX, int camY, int tileSize,
                                             int startTileX, int endTileX,
                                             int startTileY, int endTileY) {
-        GridConfig.PaintColor base = GridConfig.getPaintColor(category);
-        float hiR = Math.min(1f, base.r + 0.15f);
-        float hiG = Math.min(1f, base.g + 0.15f);
-        float hiB = Math.min(1f, base.b + 0.15f);
-        float hiA = Math.min(1f, base.a + 0.35f);
-        float edgeA = Math.min(1f, hiA + 0.15f) * category.layer().alphaScale();
-        String targetId = category.id();
-
-        for (PaintState.PaintEntry entry : snapshot) {
-            if (!targetId.equals(entry.categoryId)) continue;
-            int tx = entry.x;
-            int ty = entry.y;
-            if (tx < startTileX || tx > endTileX || ty < startTileY || ty > endTileY) continue;
-            int px = tx * tileSize - camX;
-            int py = ty * tileSize - camY;
-            drawPaintMark(px, py, tileSize, category, hiR, hiG, hiB, hiA);
-            drawCellEdges(px, py, tileSize, hiR, hiG, hiB, edgeA);
-        }
+        GridConfig.PaintColor base = frame.settings.color(category);
+        hlR = Math.min(1f, base.r + 0.15f);
+        hlG = Math.min(1f, base.g + 0.15f);
+        hlB = Math.min(1f, base.b + 0.15f);
+        hlA = Math.min(1f, base.a + 0.35f);
+        hlEdgeA = Math.min(1f, hlA + 0.15f) * category.layer().alphaScale();
+        hlCategory = category;
+        hlCamX = camX;
+        hlCamY = camY;
+        hlTileSize = tileSize;
+
+        PaintState.forEachOfCategory(startTileX, startTileY, endTileX, endTileY, category,
+                hoverHighlightVisitor);
+        QuadBatcher.flush(frame.sink);
     }
 
-    private void drawHoverTooltip(List<PaintCategory> categories,
+    private void drawHoverTooltip(PaintCategory[] categories, int count,
                                   int hoverPx, int hoverPy,
                                   int tileSize, int viewW, int viewH) {
-        if (categories == null || categories.isEmpty() || FontManager.bit == null) return;
+        final DrawSink sink = frame.sink;
+        if (count <= 0 || !sink.hasFont()) return;
         FontOptions fo = HOVER_FONT;
-        int lineHeight = FontManager.bit.getHeightCeil("Ag", fo);
+        int lineHeight = sink.textHeight("Ag", fo);
         int indicator = 10;
         int lineGap = 2;
         int pad = TOOLTIP_PADDING;
 
         int textW = 0;
-        for (PaintCategory cat : categories) {
-            int width = FontManager.bit.getWidthCeil(cat.label(), fo) + indicator + 6;
+        for (int i = 0; i < count; i++) {
+            PaintCategory cat = categories[i];
+            int width = sink.textWidth(cat.label(), fo) + indicator + 6;
             if (width > textW) textW = width;
         }
-        int textH = categories.size() * lineHeight + Math.max(0, categories.size() - 1) * lineGap;
+        int textH = count * lineHeight + Math.max(0, count - 1) * lineGap;
 
         int labelX = hoverPx + tileSize / 2 - textW / 2;
         int labelY = hoverPy - textH - 6;
@@ -312,51 +324,51 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
         int boxW = textW + pad * 2;
         int boxH = textH + pad * 2;
 
-        Renderer.initQuadDraw(boxW, boxH)
-                .color(0f, 0f, 0f, 0.75f)
-                .draw(boxX, boxY);
+        sink.hudQuad(boxX, boxY, boxW, boxH, 0f, 0f, 0f, 0.75f);
 
-        Renderer.initQuadDraw(boxW, 1).color(1f, 1f, 1f, 0.2f).draw(boxX, boxY);
-        Renderer.initQuadDraw(boxW, 1).color(1f, 1f, 1f, 0.2f).draw(boxX, boxY + boxH - 1);
-        Renderer.initQuadDraw(1, boxH).color(1f, 1f, 1f, 0.2f).draw(boxX, boxY);
-        Renderer.initQuadDraw(1, boxH).color(1f, 1f, 1f, 0.2f).draw(boxX + boxW - 1, boxY);
+        sink.hudQuad(boxX, boxY, boxW, 1, 1f, 1f, 1f, 0.2f);
+        sink.hudQuad(boxX, boxY + boxH - 1, boxW, 1, 1f, 1f, 1f, 0.2f);
+        sink.hudQuad(boxX, boxY, 1, boxH, 1f, 1f, 1f, 0.2f);
+        sink.hudQuad(boxX + boxW - 1, boxY, 1, boxH, 1f, 1f, 1f, 0.2f);
 
         int rowY = labelY;
-        for (PaintCategory cat : categories) {
-            GridConfig.PaintColor color = GridConfig.getPaintColor(cat);
-            Renderer.initQuadDraw(indicator, indicator)
-                    .color(color.r, color.g, color.b, Math.min(1f, color.a + 0.2f))
-                    .draw(labelX, rowY + (lineHeight - indicator) / 2);
-            FontManager.bit.drawString((float)(labelX + indicator + 6), (float)rowY, cat.label(), fo);
+        for (int i = 0; i < count; i++) {
+            PaintCategory cat = categories[i];
+            GridConfig.PaintColor color = frame.settings.color(cat);
+            sink.hudQuad(labelX, rowY + (lineHeight - indicator) / 2, indicator, indicator,
+                    color.r, color.g, color.b, Math.min(1f, color.a + 0.2f));
+            sink.text((float)(labelX + indicator + 6), (float)rowY, cat.label(), fo);
             rowY += lineHeight + lineGap;
         }
     }
 
-    private void drawCategoryCounter(List<PaintState.PaintEntry> snapshot) {
-        GameWindow window = WindowManager.getWindow();
-        if (window == null || FontManager.bit == null) return;
+    private void drawCategoryCounter() {
+        final DrawSink sink = frame.sink;
+        if (frame.hudWidth <= 0 || !sink.hasFont()) return;
 
-        HudCounterData data = resolveHudData(snapshot);
+        HudCounterData data = resolveHudData();
         if (data == null) return;
         if (data.rows.isEmpty()) return;
 
         FontOptions font = HUD_FONT;
-        int lineHeight = FontManager.bit.getHeightCeil("Ag", font);
+        if (hudLineHeight < 0) hudLineHeight = sink.textHeight("Ag", font);
+        int lineHeight = hudLineHeight;
         int indicatorSize = Math.min(HUD_INDICATOR_SIZE, lineHeight);
 
-        List<String> headerLines = new ArrayList<>();
-        if (data.title != null && !data.title.isEmpty()) headerLines.add(data.title);
-        if (data.subtitle != null && !data.subtitle.isEmpty()) headerLines.add(data.subtitle);
-
-        int textWidth = 0;
-        for (String header : headerLines) {
-            textWidth = Math.max(textWidth, FontManager.bit.getWidthCeil(header, font));
-        }
-        for (CategoryCount row : data.rows) {
-            String line = row.category.label() + ": " + row.count;
-            int rowWidth = indicatorSize + 6 + FontManager.bit.getWidthCeil(line, font);
-            textWidth = Math.max(textWidth, rowWidth);
+        List<String> headerLines = data.headerLines;
+        if (data.textWidth < 0) {
+            // Measured once per HUD content; the data object lives until the counts change.
+            int textWidth = 0;
+            for (String header : headerLines) {
+                textWidth = Math.max(textWidth, sink.textWidth(header, font));
+            }
+            for (int i = 0; i < data.rows.size(); i++) {
+                int rowWidth = indicatorSize + 6 + sink.textWidth(data.rowLines[i], font);
+                textWidth = Math.max(textWidth, rowWidth);
+            }
+            data.textWidth = textWidth;
         }
+        int textWidth = data.textWidth;
 
         int headerHeight = headerLines.isEmpty() ? 0
                 : headerLines.size() * lineHeight + (headerLines.size() - 1) * HUD_LINE_GAP;
@@ -366,20 +378,18 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
 
         int boxWidth = textWidth + HUD_PADDING * 2;
         int boxHeight = innerHeight + HUD_PADDING * 2;
-        int boxX = window.getHudWidth() - HUD_MARGIN - boxWidth;
+        int boxX = frame.hudWidth - HUD_MARGIN - boxWidth;
         int boxY = HUD_MARGIN;
 
-        Renderer.initQuadDraw(boxWidth, boxHeight)
-                .color(0f, 0f, 0f, 0.65f)
-                .draw(boxX, boxY);
-        Renderer.initQuadDraw(boxWidth, 1).color(1f, 1f, 1f, 0.3f).draw(boxX, boxY);
-        Renderer.initQuadDraw(boxWidth, 1).color(1f, 1f, 1f, 0.3f).draw(boxX, boxY + boxHeight - 1);
-        Renderer.initQuadDraw(1, boxHeight).color(1f, 1f, 1f, 0.3f).draw(boxX, boxY);
-        Renderer.initQuadDraw(1, boxHeight).color(1f, 1f, 1f, 0.3f).draw(boxX + boxWidth - 1, boxY);
+        sink.hudQuad(boxX, boxY, boxWidth, boxHeight, 0f, 0f, 0f, 0.65f);
+        sink.hudQuad(boxX, boxY, boxWidth, 1, 1f, 1f, 1f, 0.3f);
+        sink.hudQuad(boxX, boxY + boxHeight - 1, boxWidth, 1, 1f, 1f, 1f, 0.3f);
+        sink.hudQuad(boxX, boxY, 1, boxHeight, 1f, 1f, 1f, 0.3f);
+        sink.hudQuad(boxX + boxWidth - 1, boxY, 1, boxHeight, 1f, 1f, 1f, 0.3f);
 
         float textY = boxY + HUD_PADDING;
         for (int i = 0; i < headerLines.size(); i++) {
-            FontManager.bit.drawString(boxX + HUD_PADDING, textY, headerLines.get(i), font);
+            sink.text(boxX + HUD_PADDING, textY, headerLines.get(i), font);
             textY += lineHeight;
             if (i < headerLines.size() - 1) textY += HUD_LINE_GAP;
         }
@@ -390,29 +400,49 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
         int indicatorX = boxX + HUD_PADDING;
         for (int i = 0; i < data.rows.size(); i++) {
             CategoryCount row = data.rows.get(i);
-            GridConfig.PaintColor color = GridConfig.getPaintColor(row.category);
+            GridConfig.PaintColor color = frame.settings.color(row.category);
             int indicatorY = (int)(textY + (lineHeight - indicatorSize) / 2f);
-            Renderer.initQuadDraw(indicatorSize, indicatorSize)
-                    .color(color.r, color.g, color.b, Math.min(1f, color.a + 0.2f))
-                    .draw(indicatorX, indicatorY);
+            sink.hudQuad(indicatorX, indicatorY, indicatorSize, indicatorSize,
+                    color.r, color.g, color.b, Math.min(1f, color.a + 0.2f));
 
-            String line = row.category.label() + ": " + row.count;
-            FontManager.bit.drawString(indicatorX + indicatorSize + 6, textY, line, font);
+            sink.text(indicatorX + indicatorSize + 6, textY, data.rowLines[i], font);
             textY += lineHeight;
             if (i < data.rows.size() - 1) textY += HUD_LINE_GAP;
         }
     }
 
-    private HudCounterData resolveHudData(List<PaintState.PaintEntry> snapshot) {
-        if (BlueprintPlacement.active) {
-            HudCounterData bp = buildBlueprintHudData();
-            if (bp != null) return bp;
+    // HUD data only changes with the blueprint, the selection or the paint; this drawable
+    // lives across frames (OverlayDrawables), so it is cached here keyed on those versions.
+    private HudCounterData cachedHud;
+    private int cachedHudBlueprintGen = -1;
+    private long cachedHudSelectionRev = -1L;
+    private long cachedHudPaintVersion = -1L;
+    private int cachedHudSource = -1; // 0 = none, 1 = blueprint, 2 = selection
+    private int hudLineHeight = -1;
+
+    private HudCounterData resolveHudData() {
+        int source = BlueprintPlacement.active ? 1
+                : (SelectionState.isActive() && SelectionState.getSelectedCount() > 0) ? 2 : 0;
+        int bpGen = BlueprintPlacement.getGeneration();
+        long selRev = SelectionState.getRevision();
+        long paintVersion = PaintState.getVersion();
+        if (source == cachedHudSource && bpGen == cachedHudBlueprintGen
+                && selRev == cachedHudSelectionRev && paintVersion == cachedHudPaintVersion) {
+            return cachedHud;
         }
-        if (SelectionState.isActive() && SelectionState.getSelectedCount() > 0) {
-            HudCounterData sel = buildSelectionHudData(snapshot);
-            if (sel != null) return sel;
+        HudCounterData data = null;
+        if (source == 1) {
+            data = buildBlueprintHudData();
         }
-        return null;
+        if (data == null && SelectionState.isActive() && SelectionState.getSelectedCount() > 0) {
+            data = buildSelectionHudData();
+        }
+        cachedHud = data;
+        cachedHudSource = source;
+        cachedHudBlueprintGen = bpGen;
+        cachedHudSelectionRev = selRev;
+        cachedHudPaintVersion = paintVersion;
+        return data;
     }
 
     private HudCounterData buildBlueprintHudData() {
@@ -420,32 +450,41 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
         if (tiles.isEmpty()) return null;
         EnumMap<PaintCategory, Integer> counts = new EnumMap<>(PaintCategory.class);
         for (BlueprintPlacement.BlueprintTile tile : tiles) {
-            PaintCategory category = PaintCategory.byId(tile.categoryId);
-            counts.merge(category, 1, Integer::sum);
+            counts.merge(tile.category, 1, Integer::sum);
         }
         return buildHudDataFromCounts("Blueprint paints", tiles.size(), counts);
     }
 
-    private HudCounterData buildSelectionHudData(List<PaintState.PaintEntry> snapshot) {
-        List<long[]> selectedPoints = SelectionState.getSelectedPoints();
-        if (selectedPoints.isEmpty()) return null;
-        HashSet<Long> selected = new HashSet<>(selectedPoints.size());
-        for (long[] pt : selectedPoints) {
-            int x = (int) pt[0];
-            int y = (int) pt[1];
-            selected.add(tileKey(x, y));
+    private HudCounterData buildSelectionHudData() {
+        if (SelectionState.getMode() == SelectionState.Mode.ALL) {
+            // "Select all" spans the whole world, loaded or not: read the world-wide stats for the
+            // categories on filtered layers (the same entries SelectionState.getSelectedCount sums).
+            PaintLayerFilter filter = frame.settings.paintSelectionFilter;
+            long total = 0;
+            EnumMap<PaintCategory, Integer> counts = new EnumMap<>(PaintCategory.class);
+            for (PaintCategory category : PaintCategory.values()) {
+                if (!filter.matches(category.layer())) continue;
+                long n = PaintState.getCategoryCount(category);
+                if (n <= 0) continue;
+                counts.put(category, (int) Math.min(Integer.MAX_VALUE, n));
+                total += n;
+            }
+            return buildHudDataFromCounts("Selection paints", (int) Math.min(Integer.MAX_VALUE, total), counts);
         }
+        if (SelectionState.getSelectedCount() == 0) return null;
+        int[] byOrdinal = new int[PaintCategory.values().length];
+        int[] total = new int[1];
+        PaintState.TileVisitor counter = (tx, ty, layer, cat) -> {
+            byOrdinal[cat.ordinal()]++;
+            total[0]++;
+        };
+        SelectionState.forEachSelected((tx, ty) -> PaintState.forEachAt(tx, ty, PaintLayerFilter.ALL, counter));
         EnumMap<PaintCategory, Integer> counts = new EnumMap<>(PaintCategory.class);
-        int total = 0;
-        for (PaintState.PaintEntry entry : snapshot) {
-            long key = tileKey(entry.x, entry.y);
-            if (!selected.contains(key)) continue;
-            PaintCategory category = PaintCategory.byId(entry.categoryId);
-            counts.merge(category, 1, Integer::sum);
-            total++;
+        for (PaintCategory category : PaintCategory.values()) {
+            if (byOrdinal[category.ordinal()] > 0) counts.put(category, byOrdinal[category.ordinal()]);
         }
-        if (total == 0) return null;
-        return buildHudDataFromCounts("Selection paints", total, counts);
+        if (total[0] == 0) return null;
+        return buildHudDataFromCounts("Selection paints", total[0], counts);
     }
 
     private HudCounterData buildHudDataFromCounts(String title, int total, Map<PaintCategory, Integer> counts) {
@@ -462,10 +501,17 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
     }
 
     private void drawCellEdges(int x, int y, int size, float r, float g, float b, float a) {
-        GameResources.empty.initDraw().size(size, 2).pos(x, y, false).color(r, g, b, a).draw();
-        GameResources.empty.initDraw().size(size, 2).pos(x, y + size - 2, false).color(r, g, b, a).draw();
-        GameResources.empty.initDraw().size(2, size).pos(x, y, false).color(r, g, b, a).draw();
-        GameResources.empty.initDraw().size(2, size).pos(x + size - 2, y, false).color(r, g, b, a).draw();
+        frame.sink.quad(x, y, size, 2, r, g, b, a);
+        frame.sink.quad(x, y + size - 2, size, 2, r, g, b, a);
+        frame.sink.quad(x, y, 2, size, r, g, b, a);
+        frame.sink.quad(x + size - 2, y, 2, size, r, g, b, a);
+    }
+
+    private static void addCellEdges(int key, int x, int y, int size, float r, float g, float b, float a) {
+        QuadBatcher.add(key, x, y, size, 2, r, g, b, a);
+        QuadBatcher.add(key, x, y + size - 2, size, 2, r, g, b, a);
+        QuadBatcher.add(key, x, y, 2, size, r, g, b, a);
+        QuadBatcher.add(key, x + size - 2, y, 2, size, r, g, b, a);
     }
 
     private void drawThickLine(int x0, int y0, int x1, int y1, int thickness, float r, float g, float b, float a) {
@@ -475,139 +521,44 @@ public class PaintDrawable implements necesse.gfx.drawables.Drawable {
             if (x0 > x1) { int t = x0; x0 = x1; x1 = t; }
             int w = Math.max(2, x1 - x0 + 1);
             int h = Math.max(2, thickness);
-            GameResources.empty.initDraw().size(w, h).pos(x0, y0 - h / 2, false).color(r, g, b, a).draw();
+            frame.sink.quad(x0, y0 - h / 2, w, h, r, g, b, a);
         } else {
             if (y0 > y1) { int t = y0; y0 = y1; y1 = t; }
             int w = Math.max(2, thickness);
             int h = Math.max(2, y1 - y0 + 1);
-            GameResources.empty.initDraw().size(w, h).pos(x0 - w / 2, y0, false).color(r, g, b, a).draw();
+            frame.sink.quad(x0 - w / 2, y0, w, h, r, g, b, a);
         }
     }
 
     private void drawPaintMark(int px, int py, int tileSize,
                                PaintCategory category,
                                float r, float g, float b, float a) {
-        float finalAlpha = clamp01(a * category.layer().alphaScale());
-        if (finalAlpha <= 0f) return;
-        switch (category.style()) {
-            case FULL_TILE:
-                drawRect(px, py, tileSize, tileSize, r, g, b, finalAlpha);
-                break;
-            case INSET_RECT: {
-                int margin = Math.max(2, tileSize / 6);
-                int size = Math.max(2, tileSize - margin * 2);
-                drawRect(px + margin, py + margin, size, size, r, g, b, finalAlpha);
-                break;
-            }
-            case OUTLINE:
-                drawCellEdges(px, py, tileSize, r, g, b, finalAlpha);
-                break;
-            case TOP_STRIP: {
-                int height = Math.max(3, tileSize / 4);
-                drawRect(px, py, tileSize, height, r, g, b, finalAlpha);
-                break;
-            }
-            case TRIANGLE: {
-                drawTriangle(px, py, tileSize, r, g, b, finalAlpha);
-                break;
-            }
-            case QUARTER_CORNER: {
-                int size = Math.max(4, tileSize / 2);
-                int pad = Math.max(2, tileSize / 10);
-                int drawX = px + tileSize - size - pad;
-                int drawY = py + tileSize - size - pad;
-                drawRect(drawX, drawY, size, size, r, g, b, finalAlpha);
-                break;
-            }
-            case CENTER_DOT: {
-                int size = Math.max(4, tileSize / 3);
-                int drawX = px + (tileSize - size) / 2;
-                int drawY = py + (tileSize - size) / 2;
-                drawRect(drawX, drawY, size, size, r, g, b, finalAlpha);
-                break;
-            }
-            case PLUS_SIGN: {
-                drawPlus(px, py, tileSize, r, g, b, finalAlpha);
-                break;
-            }
-            case DOOR_ICON: {
-                int frameThickness = Math.max(2, tileSize / 8);
-                int width = Math.max(6, tileSize / 2);
-                int height = tileSize;
-                int startX = px + (tileSize - width) / 2;
-                drawRect(startX, py, frameThickness, height, r, g, b, finalAlpha); // left jamb
-                drawRect(startX + width - frameThickness, py, frameThickness, height, r, g, b, finalAlpha); // right jamb
-                int archHeight = Math.max(4, tileSize / 4);
-                drawRect(startX, py, width, frameThickness, r, g, b, finalAlpha); // header
-                int doorWidth = width - frameThickness * 2;
-                int doorHeight = height - archHeight - frameThickness;
-                int doorX = startX + frameThickness;
-                int doorY = py + archHeight;
-                drawRect(doorX, doorY, doorWidth, doorHeight, r, g, b, finalAlpha * 0.6f);
-                break;
-            }
-            default:
-                drawRect(px, py, tileSize, tileSize, r, g, b, finalAlpha);
-        }
+        PaintMarks.emit(px, py, tileSize, category, r, g, b, a, immediateQuads);
     }
 
     private void drawRect(int x, int y, int w, int h, float r, float g, float b, float a) {
-        GameResources.empty.initDraw()
-                .size(w, h)
-                .pos(x, y, false)
-                .color(r, g, b, a)
-                .draw();
-    }
-
-    private void drawPlus(int px, int py, int tileSize, float r, float g, float b, float a) {
-        int thickness = Math.max(2, tileSize / 5);
-        int usable = tileSize - thickness * 2;
-        int centerX = px + tileSize / 2;
-        int centerY = py + tileSize / 2;
-
-        int verticalX = centerX - thickness / 2;
-        int verticalY = py + (tileSize - usable) / 2;
-        drawRect(verticalX, verticalY, thickness, usable, r, g, b, a);
-
-        int horizontalX = px + (tileSize - usable) / 2;
-        int horizontalY = centerY - thickness / 2;
-        drawRect(horizontalX, horizontalY, usable, thickness, r, g, b, a);
-    }
-
-    private void drawTriangle(int px, int py, int tileSize, float r, float g, float b, float a) {
-        int triHeight = Math.max(4, tileSize / 2);
-        int baseY = py + tileSize - 1;
-        for (int row = 0; row < triHeight; row++) {
-            int width = tileSize - (row * tileSize / triHeight);
-            int startX = px + (tileSize - width) / 2;
-            int y = baseY - row;
-            GameResources.empty.initDraw()
-                    .size(Math.max(1, width), 1)
-                    .pos(startX, y, false)
-                    .color(r, g, b, a)
-                    .draw();
-        }
-    }
-
-    private static float clamp01(float value) {
-        if (value < 0f) return 0f;
-        if (value > 1f) return 1f;
-        return value;
-    }
-
-    private static long tileKey(int x, int y) {
-        return ((long)x << 32) | (y & 0xffffffffL);
+        frame.sink.quad(x, y, w, h, r, g, b, a);
     }
 
     private static final class HudCounterData {
         final String title;
         final String subtitle;
         final List<CategoryCount> rows;
+        final List<String> headerLines = new ArrayList<>(2);
+        final String[] rowLines;
+        int textWidth = -1; // measured on first draw
 
         HudCounterData(String title, String subtitle, List<CategoryCount> rows) {
             this.title = title;
             this.subtitle = subtitle;
             this.rows = rows;
+            if (title != null && !title.isEmpty()) headerLines.add(title);
+            if (subtitle != null && !subtitle.isEmpty()) headerLines.add(subtitle);
+            this.rowLines = new String[rows.size()];
+            for (int i = 0; i < rowLines.length; i++) {
+                CategoryCount row = rows.get(i);
+                rowLines[i] = row.category.label() + ": " + row.count;
+            }
         }
     }
 
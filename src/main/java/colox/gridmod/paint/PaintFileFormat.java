@@ -0,0 +1,318 @@
+package colox.gridmod.paint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+// ===========================================================================
+// PURPOSE: Binary .gridpaint v2 codec shared by world paint and blueprints.
+// Layout (all ints are unsigned LEB128 varints unless noted):
+//   "GPNT" magic, u8 version
+//   props:   count, (key, value)*           -- UTF-8 strings, length-prefixed
+//   palette: count, (categoryId, tileCount)*
+//   bounds:  zigzag minX, minY, maxX, maxY  -- only when total > 0
+//   tiles:   per palette entry, rows ascending; each tile writes dy from the
+//            previous row, then dx from the previous x (row start = minX)
+// Files that do not start with the magic are the legacy SaveData text
+// format and are read by the callers' old parsers.
+// ===========================================================================
+*/
+public final class PaintFileFormat {
+    private static final byte[] MAGIC = { 'G', 'P', 'N', 'T' };
+    static final int VERSION = 2;
+
+    private PaintFileFormat() {}
+
+    /** Growable (x, y, category) list; duplicates of the same category are dropped on write. */
+    static final class Tiles {
+        int size;
+        int[] xs = new int[256];
+        int[] ys = new int[256];
+        PaintCategory[] cats = new PaintCategory[256];
+        final Map<String, String> props = new LinkedHashMap<>();
+
+        void add(int x, int y, PaintCategory cat) {
+            if (size == xs.length) {
+                int n = size * 2;
+                xs = Arrays.copyOf(xs, n);
+                ys = Arrays.copyOf(ys, n);
+                cats = Arrays.copyOf(cats, n);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            cats[size] = cat;
+            size++;
+        }
+
+        String prop(String key, String def) {
+            String v = props.get(key);
+            return v == null ? def : v;
+        }
+
+        int intProp(String key, int def) {
+            try { return Integer.parseInt(prop(key, "")); } catch (NumberFormatException e) { return def; }
+        }
+
+        float floatProp(String key, float def) {
+            try { return Float.parseFloat(prop(key, "")); } catch (NumberFormatException e) { return def; }
+        }
+    }
+
+    /** Palette totals and bounds of a file, read from the header without decoding tiles. */
+    static final class Summary {
+        final long[] counts = new long[PaintCategory.values().length]; // by category ordinal
+        long total;
+        int minX, minY, maxX, maxY; // valid when total > 0
+    }
+
+    // ---------- sniffing ------------------------------------------------------
+
+    public static boolean isBinary(File file) {
+        if (file == null || !file.isFile()) return false;
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] head = new byte[MAGIC.length];
+            int n = in.read(head);
+            return n == MAGIC.length && Arrays.equals(head, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static boolean isBinary(byte[] data) {
+        if (data == null || data.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    // ---------- write ---------------------------------------------------------
+
+    static void write(File file, Tiles tiles) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+
+            writeVarInt(out, tiles.props.size());
+            for (Map.Entry<String, String> e : tiles.props.entrySet()) {
+                writeString(out, e.getKey());
+                writeString(out, e.getValue());
+            }
+
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int i = 0; i < tiles.size; i++) {
+                int x = tiles.xs[i], y = tiles.ys[i];
+                if (x < minX) minX = x;
+                if (y < minY) minY = y;
+                if (x > maxX) maxX = x;
+                if (y > maxY) maxY = y;
+            }
+
+            // Bucket per category as row-major keys relative to the bounds, then sort + dedupe.
+            PaintCategory[] all = PaintCategory.values();
+            int[] counts = new int[all.length];
+            for (int i = 0; i < tiles.size; i++) counts[tiles.cats[i].ordinal()]++;
+            long[][] buckets = new long[all.length][];
+            for (int c = 0; c < all.length; c++) {
+                if (counts[c] > 0) buckets[c] = new long[counts[c]];
+                counts[c] = 0;
+            }
+            for (int i = 0; i < tiles.size; i++) {
+                int c = tiles.cats[i].ordinal();
+                long rx = (long) tiles.xs[i] - minX;
+                long ry = (long) tiles.ys[i] - minY;
+                buckets[c][counts[c]++] = (ry << 32) | rx;
+            }
+            int paletteSize = 0;
+            for (int c = 0; c < all.length; c++) {
+                if (buckets[c] == null) continue;
+                Arrays.sort(buckets[c]);
+                counts[c] = dedupeSorted(buckets[c]);
+                paletteSize++;
+            }
+
+            writeVarInt(out, paletteSize);
+            for (int c = 0; c < all.length; c++) {
+                if (buckets[c] == null) continue;
+                writeString(out, all[c].id());
+                writeVarInt(out, counts[c]);
+            }
+            if (paletteSize == 0) return;
+
+            writeVarInt(out, zigzag(minX));
+            writeVarInt(out, zigzag(minY));
+            writeVarInt(out, zigzag(maxX));
+            writeVarInt(out, zigzag(maxY));
+
+            for (int c = 0; c < all.length; c++) {
+                long[] keys = buckets[c];
+                if (keys == null) continue;
+                long prevY = 0, prevX = 0;
+                for (int i = 0; i < counts[c]; i++) {
+                    long ry = keys[i] >>> 32;
+                    long rx = keys[i] & 0xffffffffL;
+                    long dy = ry - prevY;
+                    if (dy != 0) prevX = 0;
+                    writeVarLong(out, dy);
+                    writeVarLong(out, rx - prevX);
+                    prevY = ry;
+                    prevX = rx;
+                }
+            }
+        }
+    }
+
+    private static int dedupeSorted(long[] keys) {
+        if (keys.length == 0) return 0;
+        int w = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[w - 1]) keys[w++] = keys[i];
+        }
+        return w;
+    }
+
+    // ---------- read ----------------------------------------------------------
+
+    static Tiles read(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            return read(in);
+        }
+    }
+
+    static Tiles read(byte[] data) throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    static Summary readSummary(File file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(new FileInputStream(file), 1 << 10)) {
+            DataInputStream in = new DataInputStream(raw);
+            readPreamble(in, null);
+            Summary summary = new Summary();
+            int paletteSize = readVarInt(in);
+            if (paletteSize == 0) return summary;
+            for (int i = 0; i < paletteSize; i++) {
+                PaintCategory cat = PaintCategory.byId(readString(in));
+                long count = readVarInt(in) & 0xffffffffL;
+                summary.counts[cat.ordinal()] += count;
+                summary.total += count;
+            }
+            summary.minX = unzigzag(readVarInt(in));
+            summary.minY = unzigzag(readVarInt(in));
+            summary.maxX = unzigzag(readVarInt(in));
+            summary.maxY = unzigzag(readVarInt(in));
+            return summary;
+        }
+    }
+
+    private static Tiles read(InputStream raw) throws IOException {
+        DataInputStream in = new DataInputStream(raw);
+        Tiles tiles = new Tiles();
+        readPreamble(in, tiles.props);
+
+        int paletteSize = readVarInt(in);
+        if (paletteSize == 0) return tiles;
+        PaintCategory[] palette = new PaintCategory[paletteSize];
+        int[] counts = new int[paletteSize];
+        int total = 0;
+        for (int i = 0; i < paletteSize; i++) {
+            palette[i] = PaintCategory.byId(readString(in));
+            counts[i] = readVarInt(in);
+            total += counts[i];
+        }
+        int minX = unzigzag(readVarInt(in));
+        int minY = unzigzag(readVarInt(in));
+        readVarInt(in); // maxX
+        readVarInt(in); // maxY
+
+        tiles.xs = new int[Math.max(1, total)];
+        tiles.ys = new int[Math.max(1, total)];
+        tiles.cats = new PaintCategory[Math.max(1, total)];
+        for (int p = 0; p < paletteSize; p++) {
+            long ry = 0, rx = 0;
+            for (int i = 0; i < counts[p]; i++) {
+                long dy = readVarLong(in);
+                if (dy != 0) rx = 0;
+                ry += dy;
+                rx += readVarLong(in);
+                tiles.add((int) (minX + rx), (int) (minY + ry), palette[p]);
+            }
+        }
+        return tiles;
+    }
+
+    // Magic, version and props; props are skipped when {@code props} is null.
+    private static void readPreamble(DataInputStream in, Map<String, String> props) throws IOException {
+        byte[] head = new byte[MAGIC.length];
+        in.readFully(head);
+        if (!Arrays.equals(head, MAGIC)) throw new IOException("Not a binary .gridpaint file");
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported .gridpaint version " + version);
+
+        int propCount = readVarInt(in);
+        for (int i = 0; i < propCount; i++) {
+            String key = readString(in);
+            String value = readString(in);
+            if (props != null) props.put(key, value);
+        }
+    }
+
+    // ---------- primitives ----------------------------------------------------
+
+    private static int zigzag(int v)   { return (v << 1) ^ (v >> 31); }
+    private static int unzigzag(int v) { return (v >>> 1) ^ -(v & 1); }
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        writeVarLong(out, v & 0xffffffffL);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package colox.gridmod.paint;
+
+import java.util.Locale;
+
+import necesse.gfx.gameTexture.GameTexture;
+
+/*
+// ===========================================================================
+// PURPOSE: White alpha-mask sprites for the PaintStyles that take several quads.
+// - OUTLINE, TRIANGLE, PLUS_SIGN and DOOR_ICON are rasterized once per tile
+//   size from PaintMarks' own geometry into one small GameTexture each; a mark
+//   then draws as a single tinted quad instead of 2..tileSize/2 quads.
+// - Rebuilt when the tile size changes (GridConfig.tileSize).
+// - If the textures cannot be created, every caller falls back to the quad
+//   geometry for the rest of the session.
+// Render thread only (textures are created lazily on first use).
+// ===========================================================================
+*/
+final class PaintGlyphAtlas {
+    private PaintGlyphAtlas() {}
+
+    private static final PaintStyle[] STYLES = PaintStyle.values();
+    private static final GameTexture[] textures = new GameTexture[STYLES.length];
+    private static int builtSize = -1;
+    private static boolean unavailable = false;
+
+    /** Styles whose geometry is more than one quad and is therefore drawn from a sprite. */
+    static boolean isGlyphStyle(PaintStyle style) {
+        switch (style) {
+            case OUTLINE:
+            case TRIANGLE:
+            case PLUS_SIGN:
+            case DOOR_ICON:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Sprite for {@code style} at {@code tileSize}, or null when the caller should use quads. */
+    static GameTexture texture(PaintStyle style, int tileSize) {
+        if (unavailable || !isGlyphStyle(style)) return null;
+        if (tileSize != builtSize) rebuild(tileSize);
+        return textures[style.ordinal()];
+    }
+
+    private static void rebuild(int tileSize) {
+        release();
+        builtSize = tileSize;
+        try {
+            for (PaintStyle style : STYLES) {
+                if (isGlyphStyle(style)) textures[style.ordinal()] = rasterize(style, tileSize);
+            }
+        } catch (Throwable t) {
+            t.printStackTrace();
+            release();
+            unavailable = true;
+        }
+    }
+
+    private static GameTexture rasterize(PaintStyle style, int size) {
+        int[] alpha = new int[size * size];
+        PaintMarks.emitStyle(style, 0, 0, size, 1f, 1f, 1f, 1f, (x, y, w, h, r, g, b, a) -> {
+            int value = Math.round(a * 255f);
+            for (int py = Math.max(0, y); py < Math.min(size, y + h); py++) {
+                for (int px = Math.max(0, x); px < Math.min(size, x + w); px++) {
+                    int i = py * size + px;
+                    if (value > alpha[i]) alpha[i] = value;
+                }
+            }
+        });
+        GameTexture texture = new GameTexture("gridmod-glyph-" + style.name().toLowerCase(Locale.ROOT) + "-" + size, size, size);
+        for (int py = 0; py < size; py++) {
+            for (int px = 0; px < size; px++) {
+                texture.setPixel(px, py, 255, 255, 255, alpha[py * size + px]);
+            }
+        }
+        texture.makeFinal();
+        return texture;
+    }
+
+    private static void release() {
+        for (int i = 0; i < textures.length; i++) {
+            if (textures[i] == null) continue;
+            try {
+                textures[i].delete();
+            } catch (Throwable ignored) {}
+            textures[i] = null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package colox.gridmod.paint;
+
+/**
+ * Geometry of one paint mark per {@link PaintStyle}, emitted as axis-aligned quads. Shared by
+ * immediate drawing (ghosts, highlights), {@link PaintRenderCache} and the glyph rasterizer in
+ * {@link PaintGlyphAtlas}, so all of them always agree.
+ */
+final class PaintMarks {
+    private PaintMarks() {}
+
+    /** Receives the quads of a mark; coordinates are pixels in whatever space the caller chose. */
+    @FunctionalInterface
+    interface QuadOut {
+        void quad(int x, int y, int w, int h, float r, float g, float b, float a);
+
+        /**
+         * One whole mark of a multi-quad style ({@link PaintGlyphAtlas#isGlyphStyle}); sinks that
+         * can draw sprites override this, everyone else gets the quad geometry.
+         */
+        default void glyph(PaintStyle style, int x, int y, int size, float r, float g, float b, float a) {
+            emitStyle(style, x, y, size, r, g, b, a, this);
+        }
+    }
+
+    /** Emits the mark for {@code category} in the tile whose top-left pixel is (px, py). */
+    static void emit(int px, int py, int tileSize, PaintCategory category,
+                     float r, float g, float b, float a, QuadOut out) {
+        float finalAlpha = clamp01(a * category.layer().alphaScale());
+        if (finalAlpha <= 0f) return;
+        PaintStyle style = category.style();
+        if (PaintGlyphAtlas.isGlyphStyle(style)) {
+            out.glyph(style, px, py, tileSize, r, g, b, finalAlpha);
+        } else {
+            emitStyle(style, px, py, tileSize, r, g, b, finalAlpha, out);
+        }
+    }
+
+    /** Quad geometry of {@code style} with the final alpha already applied. */
+    static void emitStyle(PaintStyle style, int px, int py, int tileSize,
+                          float r, float g, float b, float finalAlpha, QuadOut out) {
+        switch (style) {
+            case FULL_TILE:
+                out.quad(px, py, tileSize, tileSize, r, g, b, finalAlpha);
+                break;
+            case INSET_RECT: {
+                int margin = Math.max(2, tileSize / 6);
+                int size = Math.max(2, tileSize - margin * 2);
+                out.quad(px + margin, py + margin, size, size, r, g, b, finalAlpha);
+                break;
+            }
+            case OUTLINE:
+                edges(px, py, tileSize, r, g, b, finalAlpha, out);
+                break;
+            case TOP_STRIP: {
+                int height = Math.max(3, tileSize / 4);
+                out.quad(px, py, tileSize, height, r, g, b, finalAlpha);
+                break;
+            }
+            case TRIANGLE:
+                triangle(px, py, tileSize, r, g, b, finalAlpha, out);
+                break;
+            case QUARTER_CORNER: {
+                int size = Math.max(4, tileSize / 2);
+                int pad = Math.max(2, tileSize / 10);
+                out.quad(px + tileSize - size - pad, py + tileSize - size - pad, size, size, r, g, b, finalAlpha);
+                break;
+            }
+            case CENTER_DOT: {
+                int size = Math.max(4, tileSize / 3);
+                out.quad(px + (tileSize - size) / 2, py + (tileSize - size) / 2, size, size, r, g, b, finalAlpha);
+                break;
+            }
+            case PLUS_SIGN:
+                plus(px, py, tileSize, r, g, b, finalAlpha, out);
+                break;
+            case DOOR_ICON: {
+                int frameThickness = Math.max(2, tileSize / 8);
+                int width = Math.max(6, tileSize / 2);
+                int height = tileSize;
+                int startX = px + (tileSize - width) / 2;
+                out.quad(startX, py, frameThickness, height, r, g, b, finalAlpha); // left jamb
+                out.quad(startX + width - frameThickness, py, frameThickness, height, r, g, b, finalAlpha); // right jamb
+                int archHeight = Math.max(4, tileSize / 4);
+                out.quad(startX, py, width, frameThickness, r, g, b, finalAlpha); // header
+                int doorWidth = width - frameThickness * 2;
+                int doorHeight = height - archHeight - frameThickness;
+                out.quad(startX + frameThickness, py + archHeight, doorWidth, doorHeight, r, g, b, finalAlpha * 0.6f);
+                break;
+            }
+            default:
+                out.quad(px, py, tileSize, tileSize, r, g, b, finalAlpha);
+        }
+    }
+
+    /** A run of {@link PaintStyle#FULL_TILE} tiles merged into one w x h pixel rectangle. */
+    static void emitRect(int px, int py, int w, int h, PaintCategory category,
+                         float r, float g, float b, float a, QuadOut out) {
+        float finalAlpha = clamp01(a * category.layer().alphaScale());
+        if (finalAlpha <= 0f) return;
+        out.quad(px, py, w, h, r, g, b, finalAlpha);
+    }
+
+    static void edges(int x, int y, int size, float r, float g, float b, float a, QuadOut out) {
+        out.quad(x, y, size, 2, r, g, b, a);
+        out.quad(x, y + size - 2, size, 2, r, g, b, a);
+        out.quad(x, y, 2, size, r, g, b, a);
+        out.quad(x + size - 2, y, 2, size, r, g, b, a);
+    }
+
+    private static void plus(int px, int py, int tileSize, float r, float g, float b, float a, QuadOut out) {
+        int thickness = Math.max(2, tileSize / 5);
+        int usable = tileSize - thickness * 2;
+        int centerX = px + tileSize / 2;
+        int centerY = py + tileSize / 2;
+        out.quad(centerX - thickness / 2, py + (tileSize - usable) / 2, thickness, usable, r, g, b, a);
+        out.quad(px + (tileSize - usable) / 2, centerY - thickness / 2, usable, thickness, r, g, b, a);
+    }
+
+    private static void triangle(int px, int py, int tileSize, float r, float g, float b, float a, QuadOut out) {
+        int triHeight = Math.max(4, tileSize / 2);
+        int baseY = py + tileSize - 1;
+        for (int row = 0; row < triHeight; row++) {
+            int width = tileSize - (row * tileSize / triHeight);
+            out.quad(px + (tileSize - width) / 2, baseY - row, Math.max(1, width), 1, r, g, b, a);
+        }
+    }
+
+    private static float clamp01(float value) {
+        if (value < 0f) return 0f;
+        if (value > 1f) return 1f;
+        return value;
+    }
+}
@@ -0,0 +1,393 @@
+package colox.gridmod.paint;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import colox.gridmod.config.GridConfig;
+
+/**
+ * Splits a world's paint into 8x8-chunk regions (256x256 tiles), one
+ * {@code r.<rx>.<ry>.gridpaint} file each under {@code worlds/<key>/regions/}.
+ * - Regions near the camera are read on a background thread and installed into the
+ *   shared {@link PaintChunkMap} on the render thread ({@link #updateView}).
+ * - Edits to a region that exists on disk but is not resident load it synchronously first.
+ * - Clean regions away from the camera are evicted once more than
+ *   {@link GridConfig#paintRegionBudget} are resident; dirty ones wait for the saver.
+ * - Each file's header (palette counts and bounds) is read at {@link #reset} to seed the
+ *   world-wide {@link PaintStats}; bounds of regions that are not resident are kept for
+ *   bounds recomputation.
+ * All methods except the loader task run on the render thread.
+ */
+final class PaintRegionStore {
+    static final int SHIFT = 3;
+    static final int TILE_SHIFT = SHIFT + PaintChunk.SHIFT;
+    private static final String PREFIX = "r.";
+    private static final String SUFFIX = ".gridpaint";
+
+    private static final class Region {
+        final int rx, ry;
+        boolean dirty;
+        long lastUsedFrame;
+
+        Region(int rx, int ry) {
+            this.rx = rx;
+            this.ry = ry;
+        }
+    }
+
+    private static final class Loaded {
+        final long key;
+        final int generation;
+        final PaintFileFormat.Tiles tiles;
+
+        Loaded(long key, int generation, PaintFileFormat.Tiles tiles) {
+            this.key = key;
+            this.generation = generation;
+            this.tiles = tiles;
+        }
+    }
+
+    /** Detached copy of one dirty region, written by the saver thread. */
+    static final class RegionCopy {
+        final File file;
+        final List<PaintChunk> chunks;
+
+        RegionCopy(File file, List<PaintChunk> chunks) {
+            this.file = file;
+            this.chunks = chunks;
+        }
+    }
+
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "GridMod-PaintLoader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PaintChunkMap chunks;
+    private final PaintStats stats;
+    private final Map<Long, Region> resident = new HashMap<>();
+    // {minX, minY, maxX, maxY} of painted regions that are on disk but not resident
+    private final Map<Long, int[]> diskBounds = new HashMap<>();
+    private final HashSet<Long> onDisk = new HashSet<>();
+    private final HashSet<Long> loading = new HashSet<>();
+    private final ConcurrentLinkedQueue<Loaded> ready = new ConcurrentLinkedQueue<>();
+    private File dir;
+    private volatile int generation;
+    private long frame;
+
+    // Edits arrive in runs on the same region; skip the map lookup for those.
+    private long lastKey = Long.MIN_VALUE;
+    private Region lastRegion;
+    // Regions never evicted while set (inclusive; empty when pinRx1 < pinRx0)
+    private int pinRx0, pinRy0, pinRx1 = -1, pinRy1 = -1;
+
+    PaintRegionStore(PaintChunkMap chunks, PaintStats stats) {
+        this.chunks = chunks;
+        this.stats = stats;
+    }
+
+    static long key(int rx, int ry) { return PaintChunk.key(rx, ry); }
+
+    // ---------- world switch --------------------------------------------------
+
+    /** Forgets all regions and indexes the files present in {@code regionDir}, adding their totals to the stats. */
+    void reset(File regionDir) {
+        generation++;
+        dir = regionDir;
+        resident.clear();
+        onDisk.clear();
+        diskBounds.clear();
+        loading.clear();
+        ready.clear();
+        lastKey = Long.MIN_VALUE;
+        lastRegion = null;
+        unpin();
+
+        File[] files = regionDir.listFiles((d, n) -> n.startsWith(PREFIX) && n.endsWith(SUFFIX));
+        if (files == null) return;
+        for (File f : files) {
+            String[] parts = f.getName().substring(PREFIX.length(), f.getName().length() - SUFFIX.length()).split("\\.");
+            if (parts.length != 2) continue;
+            long k;
+            try {
+                k = key(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            } catch (NumberFormatException ignored) {
+                continue;
+            }
+            onDisk.add(k);
+            try {
+                PaintFileFormat.Summary summary = PaintFileFormat.readSummary(f);
+                stats.addSummary(summary);
+                if (summary.total > 0) {
+                    diskBounds.put(k, new int[] { summary.minX, summary.minY, summary.maxX, summary.maxY });
+                }
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /** Marks every chunk already in memory as resident + dirty (legacy single-file migration). */
+    void adoptAllDirty() {
+        for (int s = 0; s < chunks.capacity(); s++) {
+            PaintChunk chunk = chunks.valueAt(s);
+            if (chunk == null) continue;
+            region(chunk.cx >> SHIFT, chunk.cy >> SHIFT).dirty = true;
+        }
+    }
+
+    /** For {@code clear()}: every known region becomes resident, empty, and dirty so its file is removed. */
+    void markAllCleared() {
+        generation++;
+        loading.clear();
+        ready.clear();
+        diskBounds.clear();
+        for (Region r : resident.values()) r.dirty = true;
+        for (long k : onDisk) {
+            if (!resident.containsKey(k)) region((int) (k >> 32), (int) k).dirty = true;
+        }
+    }
+
+    // ---------- edits ---------------------------------------------------------
+
+    /** Makes sure the region holding chunk (cx, cy) is resident before it is read or written. */
+    void ensureResident(int cx, int cy) {
+        regionForChunk(cx, cy);
+    }
+
+    void markChanged(int cx, int cy) {
+        regionForChunk(cx, cy).dirty = true;
+    }
+
+    private Region regionForChunk(int cx, int cy) {
+        int rx = cx >> SHIFT, ry = cy >> SHIFT;
+        long k = key(rx, ry);
+        if (k == lastKey && lastRegion != null) return lastRegion;
+        Region r = resident.get(k);
+        if (r == null) {
+            if (onDisk.contains(k)) loadNow(rx, ry);
+            r = region(rx, ry);
+        }
+        r.lastUsedFrame = frame;
+        lastKey = k;
+        lastRegion = r;
+        return r;
+    }
+
+    private Region region(int rx, int ry) {
+        long k = key(rx, ry);
+        Region r = resident.get(k);
+        if (r == null) {
+            r = new Region(rx, ry);
+            r.lastUsedFrame = frame;
+            resident.put(k, r);
+        }
+        return r;
+    }
+
+    /** Loads every region on disk (whole-world operations such as global blueprint saves). */
+    void loadAll() {
+        for (long k : new ArrayList<>(onDisk)) {
+            if (!resident.containsKey(k)) loadNow((int) (k >> 32), (int) k);
+        }
+    }
+
+    /** Loads the on-disk regions overlapping the inclusive region rectangle (nothing is created for empty ones). */
+    void loadIn(int rx0, int ry0, int rx1, int ry1) {
+        long span = (long) (rx1 - rx0 + 1) * (ry1 - ry0 + 1);
+        if (span > onDisk.size()) {
+            for (long k : new ArrayList<>(onDisk)) {
+                int rx = (int) (k >> 32), ry = (int) k;
+                if (rx < rx0 || rx > rx1 || ry < ry0 || ry > ry1 || resident.containsKey(k)) continue;
+                loadNow(rx, ry);
+            }
+            return;
+        }
+        for (int ry = ry0; ry <= ry1; ry++) {
+            for (int rx = rx0; rx <= rx1; rx++) {
+                long k = key(rx, ry);
+                if (onDisk.contains(k) && !resident.containsKey(k)) loadNow(rx, ry);
+            }
+        }
+    }
+
+    private void loadNow(int rx, int ry) {
+        long k = key(rx, ry);
+        loading.remove(k);
+        try {
+            install(rx, ry, PaintFileFormat.read(fileFor(rx, ry)));
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+        region(rx, ry);
+        PaintState.regionLoaded(rx, ry);
+    }
+
+    // ---------- streaming -----------------------------------------------------
+
+    /** Per-frame: install finished loads, queue loads around the view, evict over budget. */
+    void updateView(int minTx, int minTy, int maxTx, int maxTy) {
+        frame++;
+        Loaded done;
+        while ((done = ready.poll()) != null) {
+            loading.remove(done.key);
+            if (done.generation != generation || resident.containsKey(done.key)) continue;
+            int rx = (int) (done.key >> 32), ry = (int) done.key;
+            install(rx, ry, done.tiles);
+            region(rx, ry);
+            PaintState.regionLoaded(rx, ry);
+        }
+
+        // One region of margin so walking into a new region rarely shows a blank frame.
+        int rx0 = (minTx >> TILE_SHIFT) - 1, ry0 = (minTy >> TILE_SHIFT) - 1;
+        int rx1 = (maxTx >> TILE_SHIFT) + 1, ry1 = (maxTy >> TILE_SHIFT) + 1;
+        for (int ry = ry0; ry <= ry1; ry++) {
+            for (int rx = rx0; rx <= rx1; rx++) {
+                long k = key(rx, ry);
+                Region r = resident.get(k);
+                if (r != null) {
+                    r.lastUsedFrame = frame;
+                } else if (onDisk.contains(k) && loading.add(k)) {
+                    submitLoad(rx, ry, k);
+                }
+            }
+        }
+
+        evictOverBudget();
+    }
+
+    private void submitLoad(int rx, int ry, long k) {
+        final File file = fileFor(rx, ry);
+        final int gen = generation;
+        LOADER.submit(() -> {
+            try {
+                ready.add(new Loaded(k, gen, PaintFileFormat.read(file)));
+            } catch (Throwable t) {
+                t.printStackTrace();
+                ready.add(new Loaded(k, gen, new PaintFileFormat.Tiles()));
+            }
+        });
+    }
+
+    private void install(int rx, int ry, PaintFileFormat.Tiles tiles) {
+        diskBounds.remove(key(rx, ry));
+        for (int i = 0; i < tiles.size; i++) {
+            int tx = tiles.xs[i], ty = tiles.ys[i];
+            int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+            if ((cx >> SHIFT) != rx || (cy >> SHIFT) != ry) continue; // stray tile, not ours
+            PaintCategory cat = tiles.cats[i];
+            chunks.getOrCreate(cx, cy).set(cat.layer().ordinal(),
+                    PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty)), cat.ordinal() + 1);
+        }
+    }
+
+    /** Keeps the regions overlapping the inclusive region rectangle resident (a running wand fill). */
+    void pin(int rx0, int ry0, int rx1, int ry1) {
+        pinRx0 = rx0; pinRy0 = ry0;
+        pinRx1 = rx1; pinRy1 = ry1;
+    }
+
+    void unpin() {
+        pinRx0 = pinRy0 = 0;
+        pinRx1 = pinRy1 = -1;
+    }
+
+    private boolean isPinned(Region r) {
+        return r.rx >= pinRx0 && r.rx <= pinRx1 && r.ry >= pinRy0 && r.ry <= pinRy1;
+    }
+
+    private void evictOverBudget() {
+        int budget = Math.max(1, GridConfig.paintRegionBudget);
+        if (resident.size() <= budget) return;
+        // A write may still be reading chunk copies for a region we would reload; wait it out.
+        if (PaintSaveWriter.hasPending()) return;
+
+        List<Region> candidates = new ArrayList<>();
+        for (Region r : resident.values()) {
+            if (!r.dirty && r.lastUsedFrame < frame && !isPinned(r)) candidates.add(r);
+        }
+        candidates.sort((a, b) -> Long.compare(a.lastUsedFrame, b.lastUsedFrame));
+        int excess = resident.size() - budget;
+        for (int i = 0; i < candidates.size() && i < excess; i++) {
+            evict(candidates.get(i));
+        }
+    }
+
+    private void evict(Region r) {
+        int cx0 = r.rx << SHIFT, cy0 = r.ry << SHIFT;
+        boolean hadPaint = false;
+        int[] bounds = { Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE };
+        int[] local = new int[4];
+        for (int cy = cy0; cy < cy0 + (1 << SHIFT); cy++) {
+            for (int cx = cx0; cx < cx0 + (1 << SHIFT); cx++) {
+                PaintChunk chunk = chunks.remove(cx, cy);
+                if (chunk == null) continue;
+                hadPaint = true;
+                if (!chunk.localBounds(local)) continue;
+                bounds[0] = Math.min(bounds[0], chunk.originX() + local[0]);
+                bounds[1] = Math.min(bounds[1], chunk.originY() + local[1]);
+                bounds[2] = Math.max(bounds[2], chunk.originX() + local[2]);
+                bounds[3] = Math.max(bounds[3], chunk.originY() + local[3]);
+            }
+        }
+        long k = key(r.rx, r.ry);
+        resident.remove(k);
+        if (bounds[2] >= bounds[0]) diskBounds.put(k, bounds);
+        if (hadPaint) PaintState.regionEvicted(r.rx, r.ry);
+        if (lastRegion == r) {
+            lastRegion = null;
+            lastKey = Long.MIN_VALUE;
+        }
+    }
+
+    // ---------- saving --------------------------------------------------------
+
+    /** Copies every dirty region and clears its flag; an empty copy means "delete the file". */
+    List<RegionCopy> captureDirty() {
+        List<RegionCopy> out = new ArrayList<>();
+        for (Region r : resident.values()) {
+            if (!r.dirty) continue;
+            r.dirty = false;
+            List<PaintChunk> copies = new ArrayList<>();
+            int cx0 = r.rx << SHIFT, cy0 = r.ry << SHIFT;
+            for (int cy = cy0; cy < cy0 + (1 << SHIFT); cy++) {
+                for (int cx = cx0; cx < cx0 + (1 << SHIFT); cx++) {
+                    PaintChunk chunk = chunks.get(cx, cy);
+                    if (chunk != null && !chunk.isEmpty()) copies.add(chunk.copy());
+                }
+            }
+            long k = key(r.rx, r.ry);
+            if (copies.isEmpty()) onDisk.remove(k); else onDisk.add(k);
+            out.add(new RegionCopy(fileFor(r.rx, r.ry), copies));
+        }
+        return out;
+    }
+
+    // ---------- stats ---------------------------------------------------------
+
+    /** Grows {@code into} by the stored bounds of every painted region that is not resident. */
+    void unionDiskBounds(PaintStats into) {
+        for (int[] b : diskBounds.values()) into.grow(b[0], b[1], b[2], b[3]);
+    }
+
+    int residentCount() { return resident.size(); }
+    /** True if region (rx, ry) has a file on disk but is not in memory. */
+    boolean isUnloaded(int rx, int ry) {
+        long k = key(rx, ry);
+        return onDisk.contains(k) && !resident.containsKey(k);
+    }
+    int onDiskCount()   { return onDisk.size(); }
+    int loadingCount()  { return loading.size(); }
+
+    private File fileFor(int rx, int ry) {
+        return new File(dir, PREFIX + rx + "." + ry + SUFFIX);
+    }
+}
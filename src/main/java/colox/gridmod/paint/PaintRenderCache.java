@@ -0,0 +1,219 @@
+package colox.gridmod.paint;
+
+import java.util.Arrays;
+
+import colox.gridmod.config.GridConfig;
+import colox.gridmod.config.RenderSettings;
+import colox.gridmod.overlay.FrameContext;
+import colox.gridmod.overlay.QuadBatcher;
+import necesse.gfx.gameTexture.GameTexture;
+
+/*
+// ===========================================================================
+// PURPOSE: Per-chunk cache of the committed paint overlay.
+// - Each resident chunk in view keeps its marks as a flat quad list
+//   (offsets from the chunk's top-left pixel, size, RGBA), built once with
+//   PaintMarks in layer draw order.
+// - Multi-quad styles are recorded as one PaintGlyphAtlas sprite each.
+// - FULL_TILE tiles are greedily merged into maximal same-category
+//   rectangles per chunk and layer; one quad each. Interior edges are not
+//   visible for that style, so the result looks the same with far fewer quads.
+// - A batch is rebuilt only when its chunk object or chunk version changes,
+//   when the paint colors change (RenderSettings.colorVersion), or when the
+//   tile size changes.
+// - Drawing replays the quads with the camera offset into QuadBatcher, keyed
+//   by layer draw order, and flushes once per frame; batches for chunks that
+//   have not been in view for a while are dropped.
+// - Batches sit in a primitive-keyed ChunkKeyMap; a region eviction clears
+//   their chunk references so evicted chunks are not kept alive until then.
+// Render thread only.
+// ===========================================================================
+*/
+final class PaintRenderCache {
+    private PaintRenderCache() {}
+
+    // Batches unused for this many frames are released
+    private static final int STALE_FRAMES = 300;
+
+    private static final class ChunkBatch implements PaintMarks.QuadOut {
+        final int cx, cy;
+        PaintChunk source;
+        long chunkVersion;
+        long colorVersion;
+        int tileSize;
+        long lastFrame;
+        int count;
+        int[] geom = new int[4 * 64];     // x, y, w, h per quad
+        float[] rgba = new float[4 * 64]; // r, g, b, a per quad
+        byte[] glyph = new byte[64];      // 0 = plain quad, else PaintStyle ordinal + 1
+        byte[] layer = new byte[64];      // index into PaintState.layersByDrawOrder()
+        int currentLayer;                 // layer being emitted during rebuild
+
+        ChunkBatch(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+
+        @Override
+        public void quad(int x, int y, int w, int h, float r, float g, float b, float a) {
+            add(0, x, y, w, h, r, g, b, a);
+        }
+
+        @Override
+        public void glyph(PaintStyle style, int x, int y, int size, float r, float g, float b, float a) {
+            if (PaintGlyphAtlas.texture(style, size) == null) {
+                PaintMarks.emitStyle(style, x, y, size, r, g, b, a, this);
+                return;
+            }
+            add(style.ordinal() + 1, x, y, size, size, r, g, b, a);
+        }
+
+        private void add(int kind, int x, int y, int w, int h, float r, float g, float b, float a) {
+            int i = count * 4;
+            if (i == geom.length) {
+                geom = Arrays.copyOf(geom, i * 2);
+                rgba = Arrays.copyOf(rgba, i * 2);
+                glyph = Arrays.copyOf(glyph, count * 2);
+                layer = Arrays.copyOf(layer, count * 2);
+            }
+            geom[i] = x; geom[i + 1] = y; geom[i + 2] = w; geom[i + 3] = h;
+            rgba[i] = r; rgba[i + 1] = g; rgba[i + 2] = b; rgba[i + 3] = a;
+            glyph[count] = (byte) kind;
+            layer[count] = (byte) currentLayer;
+            count++;
+        }
+    }
+
+    private static final PaintStyle[] STYLES = PaintStyle.values();
+
+    private static final ChunkKeyMap<ChunkBatch> batches = new ChunkKeyMap<>();
+    private static long frame;
+    // Greedy meshing scratch: one bit per local x, per row, for tiles already covered
+    private static final int[] covered = new int[PaintChunk.SIZE];
+
+    /**
+     * Draws the committed paint of every resident chunk in the frame's visible chunk range;
+     * quads that fall off screen are skipped.
+     */
+    static void draw(FrameContext f) {
+        frame++;
+        final RenderSettings settings = f.settings;
+        final long colorVersion = settings.colorVersion;
+        final int camX = f.camX, camY = f.camY, viewW = f.viewW, viewH = f.viewH;
+        final int tileSize = f.tileSize;
+        PaintState.forEachResidentChunk(f.startChunkX, f.startChunkY, f.endChunkX, f.endChunkY,
+                chunk -> {
+                    ChunkBatch batch = batches.get(chunk.cx, chunk.cy);
+                    if (batch == null) {
+                        batch = new ChunkBatch(chunk.cx, chunk.cy);
+                        batches.put(chunk.cx, chunk.cy, batch);
+                    }
+                    if (batch.source != chunk || batch.chunkVersion != chunk.version
+                            || batch.colorVersion != colorVersion || batch.tileSize != tileSize) {
+                        rebuild(batch, chunk, settings, tileSize);
+                    }
+                    batch.lastFrame = frame;
+                    replay(batch, chunk.originX() * tileSize - camX,
+                            chunk.originY() * tileSize - camY, viewW, viewH);
+                });
+        // Layer by layer across all chunks; same-colored neighbours (also across chunk edges) merge
+        QuadBatcher.flush(f.sink);
+
+        if (frame % STALE_FRAMES == 0) {
+            for (int s = 0; s < batches.capacity(); s++) {
+                ChunkBatch b = batches.valueAt(s);
+                // A removal may shift a later batch into this slot; look at it again
+                if (b != null && frame - b.lastFrame > STALE_FRAMES && batches.remove(b.cx, b.cy) != null) s--;
+            }
+        }
+    }
+
+    /**
+     * Region evicted: lets go of its chunks. The batches stay, so a reload rebuilds
+     * them in place (the reloaded chunks are new objects).
+     */
+    static void releaseRegion(int cx0, int cy0, int span) {
+        if (batches.size() == 0) return;
+        for (int cy = cy0; cy < cy0 + span; cy++) {
+            for (int cx = cx0; cx < cx0 + span; cx++) {
+                ChunkBatch b = batches.get(cx, cy);
+                if (b != null) b.source = null;
+            }
+        }
+    }
+
+    private static void rebuild(ChunkBatch batch, PaintChunk chunk, RenderSettings settings, int tileSize) {
+        batch.source = chunk;
+        batch.chunkVersion = chunk.version;
+        batch.colorVersion = settings.colorVersion;
+        batch.tileSize = tileSize;
+        batch.count = 0;
+        PaintCategory[] categories = PaintCategory.values();
+        PaintLayer[] layers = PaintState.layersByDrawOrder();
+        for (int li = 0; li < layers.length; li++) {
+            byte[] data = chunk.layerData(layers[li].ordinal());
+            if (data == null) continue;
+            batch.currentLayer = li;
+            Arrays.fill(covered, 0);
+            for (int i = 0; i < PaintChunk.AREA; i++) {
+                int code = data[i] & 0xff;
+                if (code == 0) continue;
+                PaintCategory cat = categories[code - 1];
+                GridConfig.PaintColor color = settings.color(cat);
+                int lx = i & PaintChunk.MASK, ly = i >> PaintChunk.SHIFT;
+                if (cat.style() != PaintStyle.FULL_TILE) {
+                    PaintMarks.emit(lx * tileSize, ly * tileSize, tileSize,
+                            cat, color.r, color.g, color.b, color.a, batch);
+                    continue;
+                }
+                if ((covered[ly] & (1 << lx)) != 0) continue;
+                int[] wh = mergeRect(data, code, lx, ly);
+                PaintMarks.emitRect(lx * tileSize, ly * tileSize, wh[0] * tileSize, wh[1] * tileSize,
+                        cat, color.r, color.g, color.b, color.a, batch);
+            }
+        }
+    }
+
+    private static final int[] mergeSize = new int[2];
+
+    // Grows right along the row, then down while the whole span still matches; marks it covered.
+    private static int[] mergeRect(byte[] data, int code, int lx, int ly) {
+        int w = 1;
+        while (lx + w < PaintChunk.SIZE && matches(data, code, lx + w, ly)) w++;
+        int h = 1;
+        grow:
+        while (ly + h < PaintChunk.SIZE) {
+            for (int x = lx; x < lx + w; x++) {
+                if (!matches(data, code, x, ly + h)) break grow;
+            }
+            h++;
+        }
+        int bits = (w == PaintChunk.SIZE) ? -1 : ((1 << w) - 1) << lx;
+        for (int y = ly; y < ly + h; y++) covered[y] |= bits;
+        mergeSize[0] = w;
+        mergeSize[1] = h;
+        return mergeSize;
+    }
+
+    private static boolean matches(byte[] data, int code, int lx, int ly) {
+        return (data[PaintChunk.index(lx, ly)] & 0xff) == code && (covered[ly] & (1 << lx)) == 0;
+    }
+
+    private static void replay(ChunkBatch batch, int ox, int oy, int viewW, int viewH) {
+        int[] geom = batch.geom;
+        float[] rgba = batch.rgba;
+        for (int q = 0, i = 0; q < batch.count; q++, i += 4) {
+            int x = ox + geom[i], y = oy + geom[i + 1];
+            int w = geom[i + 2], h = geom[i + 3];
+            if (x >= viewW || y >= viewH || x + w <= 0 || y + h <= 0) continue;
+            int kind = batch.glyph[q];
+            if (kind == 0) {
+                QuadBatcher.add(batch.layer[q], x, y, w, h, rgba[i], rgba[i + 1], rgba[i + 2], rgba[i + 3]);
+                continue;
+            }
+            GameTexture texture = PaintGlyphAtlas.texture(STYLES[kind - 1], batch.tileSize);
+            if (texture == null) continue;
+            QuadBatcher.add(batch.layer[q], texture, x, y, w, h, rgba[i], rgba[i + 1], rgba[i + 2], rgba[i + 3]);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package colox.gridmod.paint;
+
+import java.io.File;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import colox.gridmod.config.GridConfig;
+
+/**
+ * Background writer for paint persistence.
+ * - Saves are debounced: every request pushes the deadline out by {@link GridConfig#paintSaveQuietMs}.
+ * - Once due, {@link #pump()} takes a cheap copy of the store on the calling (render) thread and
+ *   hands it to a single daemon thread, which serializes it and atomically replaces the target file.
+ * - {@link #flush()} forces the pending save through and waits for it (world switch / mod unload).
+ */
+public final class PaintSaveWriter {
+    /** A captured snapshot that knows how to write itself; runs off the render thread. */
+    interface Job {
+        void write() throws Exception;
+    }
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "GridMod-PaintSaver");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static boolean pending = false;
+    private static long dueAtMillis = 0L;
+    private static Future<?> inFlight;
+
+    // Stats (written by the saver thread, read by UI)
+    private static volatile long lastWriteMillis = 0L;
+    private static volatile long lastSnapshotMicros = 0L;
+    private static volatile int savesCompleted = 0;
+
+    private PaintSaveWriter() {}
+
+    /** Marks the store as needing a save and restarts the quiet period. */
+    static void requestSave() {
+        pending = true;
+        dueAtMillis = System.currentTimeMillis() + Math.max(0, GridConfig.paintSaveQuietMs);
+    }
+
+    static boolean hasPending() {
+        return pending || isWriting();
+    }
+
+    /** Called every tick from the render thread; never blocks on disk. */
+    static void pump() {
+        if (!pending || isWriting()) return;
+        if (System.currentTimeMillis() < dueAtMillis) return;
+        submit();
+    }
+
+    /** Writes any pending state now and waits for the saver thread to finish. */
+    static void flush() {
+        awaitInFlight();
+        pending = true;
+        submit();
+        awaitInFlight();
+    }
+
+    private static void submit() {
+        pending = false;
+        long start = System.nanoTime();
+        Job job = PaintState.captureSaveJob();
+        lastSnapshotMicros = (System.nanoTime() - start) / 1000L;
+        inFlight = EXECUTOR.submit(() -> {
+            long t0 = System.nanoTime();
+            try {
+                job.write();
+                savesCompleted++;
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+            lastWriteMillis = (System.nanoTime() - t0) / 1_000_000L;
+        });
+    }
+
+    private static boolean isWriting() {
+        return inFlight != null && !inFlight.isDone();
+    }
+
+    private static void awaitInFlight() {
+        Future<?> f = inFlight;
+        if (f == null) return;
+        try {
+            f.get(10, TimeUnit.SECONDS);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    /** Writes one file format to a path; lets binary and SaveData writers share the atomic replace. */
+    interface Output {
+        void writeTo(File file) throws Exception;
+    }
+
+    /** Saves into a sibling temp file, then renames it over the target in one step. */
+    static void replaceAtomically(File target, Output output) throws Exception {
+        File parent = target.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        File tmp = new File(parent, target.getName() + ".tmp");
+        output.writeTo(tmp);
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ---- Stats ----
+
+    /** Pending (debounced) plus in-flight saves. */
+    public static int getQueueDepth() {
+        return (pending ? 1 : 0) + (isWriting() ? 1 : 0);
+    }
+
+    /** Duration of the last serialize + write on the saver thread. */
+    public static long getLastWriteMillis() { return lastWriteMillis; }
+
+    /** Render-thread cost of the last snapshot copy. */
+    public static long getLastSnapshotMicros() { return lastSnapshotMicros; }
+
+    public static int getSavesCompleted() { return savesCompleted; }
+}
@@ -1,27 +1,53 @@
 package colox.gridmod.paint;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Comparator;
+import java.util.function.Consumer;
 
+import colox.gridmod.config.GridConfig;
 import colox.gridmod.util.ConfigPaths;
 import colox.gridmod.util.WorldKeyProvider;
 import necesse.engine.save.LoadData;
 import necesse.engine.save.SaveData;
+import necesse.gfx.camera.GameCamera;
 
 public final class PaintState {
     public static boolean enabled = false;
     private static int brush = 1;
     public static float a = 0.25f, r = 0.2f, g = 0.8f, b = 1.0f;
 
-    private static final Map<Long, PaintCell> painted = new HashMap<>();
+    private static final PaintChunkMap chunks = new PaintChunkMap();
     private static final PaintLayer[] LAYERS = PaintLayer.values();
+    private static final PaintCategory[] CATEGORIES = PaintCategory.values();
+    private static final PaintLayer[] LAYERS_BY_DRAW_ORDER = sortedByDrawOrder();
+    private static final PaintStats stats = new PaintStats();
+    private static final PaintRegionStore regions = new PaintRegionStore(chunks, stats);
+    private static final PaintChangeLog changeLog = new PaintChangeLog();
     private static boolean dirty = false;
+    private static boolean settingsDirty = false;
+    // Monotonic; bumped once per edit or batch, never reset (survives saves and world switches)
+    private static long version = 0L;
+    // Scratch for batches: chunks touched (stamped in finishBatch), and bounds of what changed.
+    // The version is only taken at the end: a region streamed in mid-batch bumps it too.
+    private static final ArrayList<PaintChunk> batchChunks = new ArrayList<>();
+    private static final long BATCH_PENDING = -1L; // chunk.version while listed in batchChunks
+    private static int batchMinX, batchMinY, batchMaxX, batchMaxY;
+    // PaintChunk.fill tallies overwritten codes here; indexed by code (ordinal + 1)
+    private static final int[] fillReplaced = new int[PaintCategory.values().length + 1];
+    // Arguments of the running editMask (its block visitor is a static lambda)
+    private static int maskLayer, maskCode, maskChanged;
+    private static PaintLayerFilter maskFilter;
+    // Layer arrays of the current chunk in forEachOccupiedInRect
+    private static final byte[][] rectLayers = new byte[PaintLayer.values().length][];
+    // Chunk occupancy bitmap scratch for intersectOccupied / occupiedInto
+    private static final long[] occupancyWords = new long[PaintChunk.BIT_WORDS];
+    private static final int[] boundsScratch = new int[4];
 private static String currentWorldKey = "global";
 private static File file = ConfigPaths.worldPaintFile(currentWorldKey).toFile();
 
@@ -42,138 +68,842 @@ private static File file = ConfigPaths.worldPaintFile(currentWorldKey).toFile();
     }
 
     public static void toggle() { enabled = !enabled; markDirty(); saveIfDirty(); }
-    public static void clear()  { painted.clear(); markDirty(); saveIfDirty(); }
+    public static void clear()  { chunks.clear(); regions.markAllCleared(); stats.reset(); structuralChange(); markDirty(); saveIfDirty(); }
 
     public static int  getBrush()  { return brush; } // brush = side length (1..32)
     public static void incBrush()  { setBrush(brush + 1); }
     public static void decBrush()  { setBrush(brush - 1); }
 
     public static void add(int tx, int ty, String categoryId) {
-        PaintCategory category = resolveCategory(categoryId);
-        long k = key(tx, ty);
-        PaintCell cell = painted.computeIfAbsent(k, kk -> new PaintCell());
-        String normalized = category.id();
-        String previous = cell.set(category.layer(), normalized);
-        if (previous == null || !previous.equals(normalized)) dirty = true;
-        if (cell.isEmpty()) painted.remove(k);
+        add(tx, ty, resolveCategory(categoryId));
+    }
+
+    public static void add(int tx, int ty, PaintCategory category) {
+        if (category == null) category = PaintCategory.defaultCategory();
+        int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+        regions.ensureResident(cx, cy);
+        PaintChunk chunk = chunks.getOrCreate(cx, cy);
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        int code = category.ordinal() + 1;
+        int layer = category.layer().ordinal();
+        int prev = chunk.set(layer, idx, code);
+        if (prev != code) {
+            stats.changed(layer, prev, code, tx, ty);
+            tileChanged(chunk, tx, ty);
+        }
+        if (chunk.isEmpty()) chunks.remove(chunk.cx, chunk.cy);
     }
 
     @Deprecated
     public static void add(int tx, int ty) {
-        add(tx, ty, colox.gridmod.paint.PaintCategory.defaultCategory().id());
+        add(tx, ty, PaintCategory.defaultCategory());
     }
 
     public static void remove(int tx, int ty, String categoryId) {
-        PaintLayer layer = (categoryId == null) ? null : resolveCategory(categoryId).layer();
-        long k = key(tx, ty);
-        PaintCell cell = painted.get(k);
-        if (cell == null) return;
-        boolean changed;
-        if (layer == null) {
-            changed = painted.remove(k) != null;
-        } else {
-            changed = cell.clear(layer);
-            if (cell.isEmpty()) painted.remove(k);
+        if (categoryId == null) {
+            removeAll(tx, ty);
+            return;
         }
-        if (changed) dirty = true;
+        PaintLayer layer = resolveCategory(categoryId).layer();
+        PaintChunk chunk = editableChunkAt(tx, ty);
+        if (chunk == null) return;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        int prev = chunk.set(layer.ordinal(), idx, 0);
+        if (prev != 0) {
+            stats.changed(layer.ordinal(), prev, 0, tx, ty);
+            tileChanged(chunk, tx, ty);
+        }
+        if (chunk.isEmpty()) chunks.remove(chunk.cx, chunk.cy);
     }
 
     public static void remove(int tx, int ty, PaintLayerFilter filter) {
         PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
-        long k = key(tx, ty);
-        PaintCell cell = painted.get(k);
-        if (cell == null) return;
-        boolean changed;
-        if (target == PaintLayerFilter.ALL) {
-            changed = painted.remove(k) != null;
-        } else {
-            changed = cell.clear(target);
-            if (cell.isEmpty()) painted.remove(k);
+        PaintChunk chunk = editableChunkAt(tx, ty);
+        if (chunk == null) return;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        boolean changed = false;
+        for (int l = 0; l < LAYERS.length; l++) {
+            if (!target.matches(LAYERS[l])) continue;
+            int prev = chunk.set(l, idx, 0);
+            if (prev != 0) {
+                stats.changed(l, prev, 0, tx, ty);
+                changed = true;
+            }
         }
-        if (changed) dirty = true;
+        if (changed) tileChanged(chunk, tx, ty);
+        if (chunk.isEmpty()) chunks.remove(chunk.cx, chunk.cy);
     }
 
     public static void removeAll(int tx, int ty) {
-        if (painted.remove(key(tx, ty)) != null) dirty = true;
+        remove(tx, ty, PaintLayerFilter.ALL);
+    }
+
+    // --- Bulk edits: one category resolve, chunk-by-chunk writes, one dirty mark per batch ---
+
+    /** Paints every tile in the inclusive rectangle. Returns the number of tiles that changed. */
+    public static int fillRect(int x0, int y0, int x1, int y1, PaintCategory category) {
+        PaintCategory cat = (category == null) ? PaintCategory.defaultCategory() : category;
+        return editRect(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1),
+                cat.layer().ordinal(), cat.ordinal() + 1, null);
+    }
+
+    /** Clears the layers matched by {@code filter} in the inclusive rectangle. Returns tiles changed. */
+    public static int eraseRect(int x0, int y0, int x1, int y1, PaintLayerFilter filter) {
+        return editRect(Math.min(x0, x1), Math.min(y0, y1), Math.max(x0, x1), Math.max(y0, y1),
+                -1, 0, (filter == null) ? PaintLayerFilter.ALL : filter);
+    }
+
+    /** Paints every tile in {@code mask} as one batch (brush strokes). Returns the number of tiles that changed. */
+    public static int fillMask(TileBitSet mask, PaintCategory category) {
+        PaintCategory cat = (category == null) ? PaintCategory.defaultCategory() : category;
+        return editMask(mask, cat.layer().ordinal(), cat.ordinal() + 1, null);
+    }
+
+    /** Clears the layers matched by {@code filter} on every tile in {@code mask} as one batch. Returns entries changed. */
+    public static int eraseMask(TileBitSet mask, PaintLayerFilter filter) {
+        return editMask(mask, -1, 0, (filter == null) ? PaintLayerFilter.ALL : filter);
+    }
+
+    /** Paints a list of absolute tiles (e.g. a transformed blueprint). Returns tiles changed. */
+    public static int addAll(List<BlueprintPlacement.BlueprintTile> tiles) {
+        if (tiles == null || tiles.isEmpty()) return 0;
+        beginBatch();
+        int changed = 0;
+        PaintChunk chunk = null;
+        for (BlueprintPlacement.BlueprintTile t : tiles) {
+            PaintCategory cat = (t.category == null) ? PaintCategory.defaultCategory() : t.category;
+            chunk = chunkForWrite(chunk, t.dx, t.dy);
+            int code = cat.ordinal() + 1;
+            int layer = cat.layer().ordinal();
+            int idx = PaintChunk.index(PaintChunk.local(t.dx), PaintChunk.local(t.dy));
+            int prev = chunk.set(layer, idx, code);
+            if (prev != code) {
+                stats.changed(layer, prev, code, t.dx, t.dy);
+                batchTouched(chunk, t.dx, t.dy, t.dx, t.dy);
+                changed++;
+            }
+        }
+        return finishBatch(changed);
+    }
+
+    /** Parallel-array variant of {@link #addAll(List)} used by file loaders. */
+    static int addAll(int[] xs, int[] ys, PaintCategory[] cats, int count) {
+        beginBatch();
+        int changed = 0;
+        PaintChunk chunk = null;
+        for (int i = 0; i < count; i++) {
+            PaintCategory cat = cats[i];
+            chunk = chunkForWrite(chunk, xs[i], ys[i]);
+            int code = cat.ordinal() + 1;
+            int layer = cat.layer().ordinal();
+            int idx = PaintChunk.index(PaintChunk.local(xs[i]), PaintChunk.local(ys[i]));
+            int prev = chunk.set(layer, idx, code);
+            if (prev != code) {
+                stats.changed(layer, prev, code, xs[i], ys[i]);
+                batchTouched(chunk, xs[i], ys[i], xs[i], ys[i]);
+                changed++;
+            }
+        }
+        return finishBatch(changed);
+    }
+
+    // layer < 0 means "every layer the filter matches" with code 0 (erase).
+    private static int editRect(int x0, int y0, int x1, int y1, int layer, int code, PaintLayerFilter filter) {
+        beginBatch();
+        int changed = 0;
+        int cx0 = PaintChunk.chunkCoord(x0), cx1 = PaintChunk.chunkCoord(x1);
+        int cy0 = PaintChunk.chunkCoord(y0), cy1 = PaintChunk.chunkCoord(y1);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            int ly0 = (cy == cy0) ? PaintChunk.local(y0) : 0;
+            int ly1 = (cy == cy1) ? PaintChunk.local(y1) : PaintChunk.MASK;
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int lx0 = (cx == cx0) ? PaintChunk.local(x0) : 0;
+                int lx1 = (cx == cx1) ? PaintChunk.local(x1) : PaintChunk.MASK;
+                regions.ensureResident(cx, cy);
+                int chunkChanged = 0;
+                PaintChunk chunk;
+                if (code != 0) {
+                    chunk = chunks.getOrCreate(cx, cy);
+                    chunkChanged = chunk.fill(layer, lx0, ly0, lx1, ly1, code, fillReplaced);
+                    if (chunkChanged > 0) {
+                        takeReplaced(layer);
+                        stats.added(layer, code, chunkChanged);
+                    }
+                } else {
+                    chunk = chunks.get(cx, cy);
+                    if (chunk == null) continue;
+                    for (int l = 0; l < LAYERS.length; l++) {
+                        if (filter.matches(LAYERS[l]) && chunk.hasLayer(l)) {
+                            int n = chunk.fill(l, lx0, ly0, lx1, ly1, 0, fillReplaced);
+                            if (n > 0) takeReplaced(l);
+                            chunkChanged += n;
+                        }
+                    }
+                }
+                if (chunkChanged > 0) {
+                    int ax0 = chunk.originX() + lx0, ay0 = chunk.originY() + ly0;
+                    int ax1 = chunk.originX() + lx1, ay1 = chunk.originY() + ly1;
+                    if (code != 0) stats.grow(ax0, ay0, ax1, ay1);
+                    else           stats.cleared(ax0, ay0, ax1, ay1);
+                    batchTouched(chunk, ax0, ay0, ax1, ay1);
+                }
+                if (chunk.isEmpty()) chunks.remove(cx, cy);
+                changed += chunkChanged;
+            }
+        }
+        return finishBatch(changed);
+    }
+
+    // Same contract as editRect, over the set bits of each mask block.
+    private static int editMask(TileBitSet mask, int layer, int code, PaintLayerFilter filter) {
+        if (mask == null || mask.isEmpty()) return 0;
+        beginBatch();
+        maskLayer = layer;
+        maskCode = code;
+        maskFilter = filter;
+        maskChanged = 0;
+        mask.forEachBlock(MASK_EDIT);
+        maskFilter = null;
+        return finishBatch(maskChanged);
+    }
+
+    private static final TileBitSet.BlockVisitor MASK_EDIT = (cx, cy, words) -> {
+        regions.ensureResident(cx, cy);
+        PaintChunk chunk = (maskCode != 0) ? chunks.getOrCreate(cx, cy) : chunks.get(cx, cy);
+        if (chunk == null) return;
+        int ox = chunk.originX(), oy = chunk.originY();
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0L) {
+                int idx = (w << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int tx = ox + (idx & PaintChunk.MASK), ty = oy + (idx >> PaintChunk.SHIFT);
+                if (maskCode != 0) {
+                    maskSet(chunk, maskLayer, idx, maskCode, tx, ty);
+                } else {
+                    for (int l = 0; l < LAYERS.length; l++) {
+                        if (maskFilter.matches(LAYERS[l]) && chunk.hasLayer(l)) maskSet(chunk, l, idx, 0, tx, ty);
+                    }
+                }
+            }
+        }
+        if (chunk.isEmpty()) chunks.remove(cx, cy);
+    };
+
+    private static void maskSet(PaintChunk chunk, int layer, int idx, int code, int tx, int ty) {
+        int prev = chunk.set(layer, idx, code);
+        if (prev == code) return;
+        stats.changed(layer, prev, code, tx, ty);
+        batchTouched(chunk, tx, ty, tx, ty);
+        maskChanged++;
+    }
+
+    // Moves the codes a fill overwrote out of the scratch tally and into the stats.
+    private static void takeReplaced(int layer) {
+        for (int c = 1; c < fillReplaced.length; c++) {
+            int n = fillReplaced[c];
+            if (n == 0) continue;
+            stats.removed(layer, c, n);
+            fillReplaced[c] = 0;
+        }
+    }
+
+    // Reuses the previous chunk while consecutive tiles stay inside it.
+    private static PaintChunk chunkForWrite(PaintChunk last, int tx, int ty) {
+        int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+        if (last != null && last.cx == cx && last.cy == cy) return last;
+        regions.ensureResident(cx, cy);
+        return chunks.getOrCreate(cx, cy);
+    }
+
+    private static void beginBatch() {
+        batchChunks.clear();
+        batchMinX = batchMinY = Integer.MAX_VALUE;
+        batchMaxX = batchMaxY = Integer.MIN_VALUE;
+    }
+
+    private static void batchTouched(PaintChunk chunk, int x0, int y0, int x1, int y1) {
+        if (chunk.version != BATCH_PENDING) {
+            chunk.version = BATCH_PENDING;
+            batchChunks.add(chunk);
+        }
+        regions.markChanged(chunk.cx, chunk.cy);
+        if (x0 < batchMinX) batchMinX = x0;
+        if (y0 < batchMinY) batchMinY = y0;
+        if (x1 > batchMaxX) batchMaxX = x1;
+        if (y1 > batchMaxY) batchMaxY = y1;
+    }
+
+    private static int finishBatch(int changed) {
+        if (changed > 0) {
+            dirty = true;
+            version++;
+            for (int i = 0; i < batchChunks.size(); i++) batchChunks.get(i).version = version;
+            changeLog.record(version, batchMinX, batchMinY, batchMaxX, batchMaxY);
+        }
+        batchChunks.clear();
+        return changed;
+    }
+
+    // --- Change tracking ---
+
+    /** Monotonic modification counter; any visible change to the painted tiles bumps it. */
+    public static long getVersion() { return version; }
+
+    /** Paint chunk coordinate containing tile coordinate {@code tile} (floor division). */
+    public static int chunkCoordOf(int tile) { return PaintChunk.chunkCoord(tile); }
+
+    /**
+     * Writes the tile bounds {minX, minY, maxX, maxY} touched after {@code sinceVersion} into
+     * {@code outBounds} and returns true, or returns false if nothing changed. If the history
+     * no longer reaches back that far the bounds cover the full int range.
+     */
+    public static boolean getChangedBoundsSince(long sinceVersion, int[] outBounds) {
+        return changeLog.boundsSince(sinceVersion, version, outBounds);
+    }
+
+    /** Region streamed in: everything inside it counts as changed (its tiles just became visible). */
+    static void regionLoaded(int rx, int ry) {
+        version++;
+        int cx0 = rx << PaintRegionStore.SHIFT, cy0 = ry << PaintRegionStore.SHIFT;
+        int span = 1 << PaintRegionStore.SHIFT;
+        for (int cy = cy0; cy < cy0 + span; cy++) {
+            for (int cx = cx0; cx < cx0 + span; cx++) {
+                PaintChunk chunk = chunks.get(cx, cy);
+                if (chunk != null) chunk.version = version;
+            }
+        }
+        int x0 = rx << PaintRegionStore.TILE_SHIFT, y0 = ry << PaintRegionStore.TILE_SHIFT;
+        int size = 1 << PaintRegionStore.TILE_SHIFT;
+        changeLog.record(version, x0, y0, x0 + size - 1, y0 + size - 1);
+    }
+
+    /**
+     * Region evicted: its chunks left memory, so version-keyed caches must look again, but the
+     * paint itself did not change and nothing goes into the change log (a running wand fill
+     * keeps its progress and simply reloads the region if it reaches it again).
+     */
+    static void regionEvicted(int rx, int ry) {
+        version++;
+        int span = 1 << PaintRegionStore.SHIFT;
+        PaintRenderCache.releaseRegion(rx << PaintRegionStore.SHIFT, ry << PaintRegionStore.SHIFT, span);
+    }
+
+    // Whole store replaced (clear, world switch): bounded history no longer applies.
+    private static void structuralChange() {
+        version++;
+        changeLog.reset(version);
     }
 
     public static String getCategory(int tx, int ty) {
-        PaintCell cell = painted.get(key(tx, ty));
-        if (cell == null) return PaintCategory.defaultCategory().id();
-        String cat = cell.topCategoryId();
-        return (cat == null) ? PaintCategory.defaultCategory().id() : cat;
+        PaintCategory cat = topCategory(tx, ty);
+        return (cat == null) ? PaintCategory.defaultCategory().id() : cat.id();
     }
 
     public static PaintEntry getPaintEntry(int tx, int ty) {
-        PaintCell cell = painted.get(key(tx, ty));
-        if (cell == null) return null;
-        return cell.topEntry(tx, ty);
+        PaintChunk chunk = chunkAt(tx, ty);
+        if (chunk == null) return null;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        for (int l = LAYERS.length - 1; l >= 0; l--) {
+            int code = chunk.get(l, idx);
+            if (code != 0) return new PaintEntry(tx, ty, CATEGORIES[code - 1]);
+        }
+        return null;
     }
 
     public static List<PaintEntry> getPaintEntries(int tx, int ty) {
-        PaintCell cell = painted.get(key(tx, ty));
-        if (cell == null) return Collections.emptyList();
-        return cell.entriesDescending(tx, ty);
+        PaintChunk chunk = chunkAt(tx, ty);
+        if (chunk == null) return Collections.emptyList();
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        List<PaintEntry> entries = new ArrayList<>(LAYERS.length);
+        for (int l = LAYERS.length - 1; l >= 0; l--) {
+            int code = chunk.get(l, idx);
+            if (code == 0) continue;
+            entries.add(new PaintEntry(tx, ty, CATEGORIES[code - 1]));
+        }
+        return entries;
+    }
+
+    /**
+     * {@link #getPaintEntries} without the allocations: copies the tile's categories, top layer
+     * first, into {@code out} (sized for one per layer) and returns how many were written.
+     */
+    public static int categoriesAt(int tx, int ty, PaintCategory[] out) {
+        PaintChunk chunk = chunkAt(tx, ty);
+        if (chunk == null) return 0;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        int n = 0;
+        for (int l = LAYERS.length - 1; l >= 0; l--) {
+            int code = chunk.get(l, idx);
+            if (code != 0) out[n++] = CATEGORIES[code - 1];
+        }
+        return n;
     }
 
+    /** Every painted (tile, layer) entry, ordered by layer draw order. */
     public static List<PaintEntry> iterateSnapshot() {
-        List<PaintEntry> out = new ArrayList<>(painted.size());
-        for (Map.Entry<Long, PaintCell> entry : painted.entrySet()) {
-            long k = entry.getKey();
-            int x = (int)(k >> 32);
-            int y = (int) k;
-            entry.getValue().collectEntries(x, y, out);
-        }
-        out.sort(Comparator.comparingInt(e -> e.layer.drawOrder()));
+        int total = 0;
+        for (int s = 0; s < chunks.capacity(); s++) {
+            PaintChunk chunk = chunks.valueAt(s);
+            if (chunk != null) total += chunk.entryCount();
+        }
+        List<PaintEntry> out = new ArrayList<>(total);
+        for (PaintLayer layer : LAYERS_BY_DRAW_ORDER) {
+            int l = layer.ordinal();
+            for (int s = 0; s < chunks.capacity(); s++) {
+                PaintChunk chunk = chunks.valueAt(s);
+                if (chunk == null || !chunk.hasLayer(l)) continue;
+                byte[] data = chunk.layerData(l);
+                int ox = chunk.originX();
+                int oy = chunk.originY();
+                for (int i = 0; i < PaintChunk.AREA; i++) {
+                    int code = data[i] & 0xff;
+                    if (code == 0) continue;
+                    out.add(new PaintEntry(ox + (i & PaintChunk.MASK), oy + (i >> PaintChunk.SHIFT),
+                            CATEGORIES[code - 1]));
+                }
+            }
+        }
         return out;
     }
 
+    /**
+     * Visits every painted (tile, layer) inside the inclusive tile rectangle whose layer
+     * matches {@code filter}, in layer draw order. Only chunks overlapping the rectangle
+     * are touched and nothing is allocated per tile.
+     */
+    public static void forEachInRect(int x0, int y0, int x1, int y1, PaintLayerFilter filter, TileVisitor visitor) {
+        if (visitor == null || x1 < x0 || y1 < y0 || chunks.size() == 0) return;
+        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
+        int cx0 = PaintChunk.chunkCoord(x0), cy0 = PaintChunk.chunkCoord(y0);
+        int cx1 = PaintChunk.chunkCoord(x1), cy1 = PaintChunk.chunkCoord(y1);
+        long span = (long)(cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+        boolean scanTable = span > chunks.capacity();
+        for (PaintLayer layer : LAYERS_BY_DRAW_ORDER) {
+            if (!target.matches(layer)) continue;
+            int l = layer.ordinal();
+            if (scanTable) {
+                for (int s = 0; s < chunks.capacity(); s++) {
+                    PaintChunk chunk = chunks.valueAt(s);
+                    if (chunk == null || chunk.cx < cx0 || chunk.cx > cx1 || chunk.cy < cy0 || chunk.cy > cy1) continue;
+                    visitChunkLayer(chunk, l, x0, y0, x1, y1, visitor);
+                }
+            } else {
+                for (int cy = cy0; cy <= cy1; cy++) {
+                    for (int cx = cx0; cx <= cx1; cx++) {
+                        PaintChunk chunk = chunks.get(cx, cy);
+                        if (chunk != null) visitChunkLayer(chunk, l, x0, y0, x1, y1, visitor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every tile of {@code category} inside the inclusive tile rectangle, row by row per
+     * chunk. Uses the chunks' per-category bitmaps, so the cost depends on the rectangle and on
+     * the matching tiles, not on how much else is painted.
+     */
+    public static void forEachOfCategory(int x0, int y0, int x1, int y1, PaintCategory category, TileVisitor visitor) {
+        if (category == null || visitor == null || x1 < x0 || y1 < y0) return;
+        if (stats.byCategory[category.ordinal()] == 0) return;
+        int code = category.ordinal() + 1;
+        int cx0 = PaintChunk.chunkCoord(x0), cy0 = PaintChunk.chunkCoord(y0);
+        int cx1 = PaintChunk.chunkCoord(x1), cy1 = PaintChunk.chunkCoord(y1);
+        long span = (long)(cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+        if (span > chunks.capacity()) {
+            for (int s = 0; s < chunks.capacity(); s++) {
+                PaintChunk chunk = chunks.valueAt(s);
+                if (chunk == null || chunk.cx < cx0 || chunk.cx > cx1 || chunk.cy < cy0 || chunk.cy > cy1) continue;
+                visitCategoryBits(chunk, code, x0, y0, x1, y1, category, visitor);
+            }
+            return;
+        }
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                PaintChunk chunk = chunks.get(cx, cy);
+                if (chunk != null) visitCategoryBits(chunk, code, x0, y0, x1, y1, category, visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits every resident, non-empty chunk inside the inclusive chunk rectangle. Falls back to
+     * scanning the chunk table when the rectangle is larger than it (far zoom-out).
+     */
+    static void forEachResidentChunk(int cx0, int cy0, int cx1, int cy1, Consumer<PaintChunk> visitor) {
+        if (cx1 < cx0 || cy1 < cy0 || chunks.size() == 0) return;
+        long span = (long)(cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+        if (span > chunks.capacity()) {
+            for (int s = 0; s < chunks.capacity(); s++) {
+                PaintChunk chunk = chunks.valueAt(s);
+                if (chunk == null || chunk.isEmpty() || chunk.cx < cx0 || chunk.cx > cx1 || chunk.cy < cy0 || chunk.cy > cy1) continue;
+                visitor.accept(chunk);
+            }
+            return;
+        }
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                PaintChunk chunk = chunks.get(cx, cy);
+                if (chunk != null && !chunk.isEmpty()) visitor.accept(chunk);
+            }
+        }
+    }
+
+    /**
+     * Visits, once each, the tiles inside the inclusive rectangle painted on at least one layer
+     * matching {@code filter}. Only chunks overlapping the rectangle are touched (the chunk
+     * table is scanned instead when the rectangle is larger, e.g. the whole world).
+     */
+    static void forEachOccupiedInRect(int x0, int y0, int x1, int y1, PaintLayerFilter filter,
+                                      TileBitSet.TileConsumer visitor) {
+        if (visitor == null || x1 < x0 || y1 < y0 || chunks.size() == 0) return;
+        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
+        int cx0 = PaintChunk.chunkCoord(x0), cy0 = PaintChunk.chunkCoord(y0);
+        int cx1 = PaintChunk.chunkCoord(x1), cy1 = PaintChunk.chunkCoord(y1);
+        long span = (long)(cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+        if (span > chunks.capacity()) {
+            for (int s = 0; s < chunks.capacity(); s++) {
+                PaintChunk chunk = chunks.valueAt(s);
+                if (chunk == null || chunk.cx < cx0 || chunk.cx > cx1 || chunk.cy < cy0 || chunk.cy > cy1) continue;
+                visitOccupied(chunk, target, x0, y0, x1, y1, visitor);
+            }
+            return;
+        }
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                PaintChunk chunk = chunks.get(cx, cy);
+                if (chunk != null) visitOccupied(chunk, target, x0, y0, x1, y1, visitor);
+            }
+        }
+    }
+
+    /**
+     * Replaces {@code out} with the tiles of {@code area} painted on a layer matching {@code filter}.
+     * Each block of {@code area} is ANDed against its chunk's occupancy bitmap, 64 tiles per step.
+     */
+    static void intersectOccupied(TileBitSet area, PaintLayerFilter filter, TileBitSet out) {
+        out.clear();
+        if (area.isEmpty() || chunks.size() == 0) return;
+        int mask = layerMask(filter);
+        area.forEachBlock((cx, cy, words) -> {
+            PaintChunk chunk = chunks.get(cx, cy);
+            if (chunk != null && chunk.occupancyWords(mask, occupancyWords)) out.orWords(cx, cy, words, occupancyWords);
+        });
+    }
+
+    /** Replaces {@code out} with every resident tile painted on a layer matching {@code filter}. */
+    static void occupiedInto(PaintLayerFilter filter, TileBitSet out) {
+        out.clear();
+        int mask = layerMask(filter);
+        for (int s = 0; s < chunks.capacity(); s++) {
+            PaintChunk chunk = chunks.valueAt(s);
+            if (chunk == null || chunk.isEmpty() || !chunk.occupancyWords(mask, occupancyWords)) continue;
+            out.orWords(chunk.cx, chunk.cy, occupancyWords, null);
+        }
+    }
+
+    private static int layerMask(PaintLayerFilter filter) {
+        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
+        int mask = 0;
+        for (int l = 0; l < LAYERS.length; l++) {
+            if (target.matches(LAYERS[l])) mask |= 1 << l;
+        }
+        return mask;
+    }
+
+    private static void visitOccupied(PaintChunk chunk, PaintLayerFilter target, int x0, int y0, int x1, int y1,
+                                      TileBitSet.TileConsumer visitor) {
+        byte[][] matching = rectLayers;
+        int layerCount = 0;
+        for (int l = 0; l < LAYERS.length; l++) {
+            byte[] data = chunk.layerData(l);
+            if (data != null && target.matches(LAYERS[l])) matching[layerCount++] = data;
+        }
+        if (layerCount == 0) return;
+        int ox = chunk.originX();
+        int oy = chunk.originY();
+        int lx0 = PaintChunk.clampLocal((long) x0 - ox), lx1 = PaintChunk.clampLocal((long) x1 - ox);
+        int ly0 = PaintChunk.clampLocal((long) y0 - oy), ly1 = PaintChunk.clampLocal((long) y1 - oy);
+        for (int ly = ly0; ly <= ly1; ly++) {
+            int row = ly << PaintChunk.SHIFT;
+            for (int lx = lx0; lx <= lx1; lx++) {
+                for (int k = 0; k < layerCount; k++) {
+                    if (matching[k][row | lx] != 0) {
+                        visitor.accept(ox + lx, oy + ly);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /** True if the tile is painted on at least one layer matching {@code filter}. */
+    static boolean isOccupied(int tx, int ty, PaintLayerFilter filter) {
+        PaintChunk chunk = chunkAt(tx, ty);
+        if (chunk == null) return false;
+        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        for (int l = 0; l < LAYERS.length; l++) {
+            if (chunk.get(l, idx) != 0 && target.matches(LAYERS[l])) return true;
+        }
+        return false;
+    }
+
+    /** Layers sorted by {@link PaintLayer#drawOrder()}; shared array, do not modify. */
+    static PaintLayer[] layersByDrawOrder() { return LAYERS_BY_DRAW_ORDER; }
+
+    /** Visits the painted layers of a single tile matching {@code filter}, bottom layer first. */
+    public static void forEachAt(int tx, int ty, PaintLayerFilter filter, TileVisitor visitor) {
+        PaintChunk chunk = chunkAt(tx, ty);
+        if (chunk == null || visitor == null) return;
+        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        for (PaintLayer layer : LAYERS_BY_DRAW_ORDER) {
+            if (!target.matches(layer)) continue;
+            int code = chunk.get(layer.ordinal(), idx);
+            if (code != 0) visitor.visit(tx, ty, layer, CATEGORIES[code - 1]);
+        }
+    }
+
+    private static void visitChunkLayer(PaintChunk chunk, int l, int x0, int y0, int x1, int y1, TileVisitor visitor) {
+        byte[] data = chunk.layerData(l);
+        if (data == null) return;
+        PaintLayer layer = LAYERS[l];
+        int ox = chunk.originX();
+        int oy = chunk.originY();
+        int lx0 = PaintChunk.clampLocal((long) x0 - ox), lx1 = PaintChunk.clampLocal((long) x1 - ox);
+        int ly0 = PaintChunk.clampLocal((long) y0 - oy), ly1 = PaintChunk.clampLocal((long) y1 - oy);
+        for (int ly = ly0; ly <= ly1; ly++) {
+            int row = ly << PaintChunk.SHIFT;
+            for (int lx = lx0; lx <= lx1; lx++) {
+                int code = data[row | lx] & 0xff;
+                if (code != 0) visitor.visit(ox + lx, oy + ly, layer, CATEGORIES[code - 1]);
+            }
+        }
+    }
+
+    // Two 32-tile rows per bitmap word; bits outside the clipped columns/rows are masked off.
+    private static void visitCategoryBits(PaintChunk chunk, int code, int x0, int y0, int x1, int y1,
+                                          PaintCategory category, TileVisitor visitor) {
+        long[] bits = chunk.categoryBits(code);
+        if (bits == null) return;
+        PaintLayer layer = category.layer();
+        int ox = chunk.originX();
+        int oy = chunk.originY();
+        int lx0 = PaintChunk.clampLocal((long) x0 - ox), lx1 = PaintChunk.clampLocal((long) x1 - ox);
+        int ly0 = PaintChunk.clampLocal((long) y0 - oy), ly1 = PaintChunk.clampLocal((long) y1 - oy);
+        if (lx0 > lx1 || ly0 > ly1) return;
+        long rowMask = ((1L << (lx1 - lx0 + 1)) - 1L) << lx0;
+        for (int w = ly0 >> 1, wEnd = ly1 >> 1; w <= wEnd; w++) {
+            long word = bits[w];
+            if (word == 0L) continue;
+            int evenRow = w << 1;
+            long mask = 0L;
+            if (evenRow >= ly0) mask |= rowMask;
+            if (evenRow + 1 <= ly1) mask |= rowMask << PaintChunk.SIZE;
+            word &= mask;
+            while (word != 0L) {
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1L;
+                int idx = (w << 6) | bit;
+                visitor.visit(ox + (idx & PaintChunk.MASK), oy + (idx >> PaintChunk.SHIFT), layer, category);
+            }
+        }
+    }
+
+    /** Number of painted (tile, layer) entries across the world. */
+    public static int getEntryCount() {
+        return (int) Math.min(Integer.MAX_VALUE, stats.total);
+    }
+
+    // --- Live statistics: whole world, including regions that are not resident; O(1) reads ---
+
+    public static long getTotalCount() { return stats.total; }
+
+    public static long getCategoryCount(PaintCategory category) {
+        return category == null ? 0L : stats.byCategory[category.ordinal()];
+    }
+
+    public static long getLayerCount(PaintLayer layer) {
+        return layer == null ? 0L : stats.byLayer[layer.ordinal()];
+    }
+
+    /**
+     * Writes the painted tile bounds {minX, minY, maxX, maxY} into {@code outBounds}; false when
+     * nothing is painted. Cheap unless an erase touched the edge since the last call, in which
+     * case the box is rebuilt from resident chunks and the stored bounds of unloaded regions.
+     */
+    public static boolean getPaintedBounds(int[] outBounds) {
+        if (stats.total <= 0) return false;
+        if (stats.boundsStale) recomputeBounds();
+        outBounds[0] = stats.minX; outBounds[1] = stats.minY;
+        outBounds[2] = stats.maxX; outBounds[3] = stats.maxY;
+        return true;
+    }
+
+    private static void recomputeBounds() {
+        stats.emptyBounds();
+        regions.unionDiskBounds(stats);
+        // Only chunks on the outermost chunk rows/columns can hold the extreme tiles.
+        int minCx = Integer.MAX_VALUE, minCy = Integer.MAX_VALUE;
+        int maxCx = Integer.MIN_VALUE, maxCy = Integer.MIN_VALUE;
+        for (int s = 0; s < chunks.capacity(); s++) {
+            PaintChunk chunk = chunks.valueAt(s);
+            if (chunk == null || chunk.isEmpty()) continue;
+            if (chunk.cx < minCx) minCx = chunk.cx;
+            if (chunk.cy < minCy) minCy = chunk.cy;
+            if (chunk.cx > maxCx) maxCx = chunk.cx;
+            if (chunk.cy > maxCy) maxCy = chunk.cy;
+        }
+        if (minCx == Integer.MAX_VALUE) return;
+        int[] lb = boundsScratch;
+        for (int s = 0; s < chunks.capacity(); s++) {
+            PaintChunk chunk = chunks.valueAt(s);
+            if (chunk == null) continue;
+            if (chunk.cx != minCx && chunk.cx != maxCx && chunk.cy != minCy && chunk.cy != maxCy) continue;
+            if (!chunk.localBounds(lb)) continue;
+            stats.grow(chunk.originX() + lb[0], chunk.originY() + lb[1],
+                    chunk.originX() + lb[2], chunk.originY() + lb[3]);
+        }
+    }
+
     public static void load() {
         loadForWorld(WorldKeyProvider.currentWorldKey());
     }
 
     private static void loadForWorld(String worldKey) {
+        // Persist whatever belongs to the world we are leaving before swapping files.
+        if (dirty || PaintSaveWriter.hasPending()) flushSave();
         currentWorldKey = (worldKey == null || worldKey.isBlank()) ? "global" : worldKey;
         Path p = ConfigPaths.worldPaintFile(currentWorldKey);
         file = p.toFile();
-        if (!file.exists()) {
-            painted.clear();
-            writeCurrentStateToFile();
+        File source = adoptLegacyPaintFile(ConfigPaths.legacyWorldPaintFile(currentWorldKey));
+        chunks.clear();
+        stats.reset();
+        regions.reset(ConfigPaths.worldPaintRegionsDir(currentWorldKey).toFile());
+        structuralChange();
+        if (!source.exists()) {
+            settingsDirty = true;
+            flushSave();
             return;
         }
 
         try {
-            LoadData ld = new LoadData(file);
-            enabled = ld.getBoolean("enabled", false);
-            brush   = ld.getInt("brush", 1);
-            if (brush < 1) brush = 1;
-            if (brush > 32) brush = 32;
-
-            a = ld.getFloat("a", a);
-            r = ld.getFloat("r", r);
-            g = ld.getFloat("g", g);
-            b = ld.getFloat("b", b);
-
-            painted.clear();
-            String points = ld.getSafeString("points", "");
-            if (!points.isEmpty()) {
-                String[] pairs = points.split(";");
-                for (String pair : pairs) {
-                    if (pair.isEmpty()) continue;
-                    String[] xy = pair.split(",");
-                    if (xy.length < 2) continue;
-                    int x = Integer.parseInt(xy[0].trim());
-                    int y = Integer.parseInt(xy[1].trim());
-                    String cat = (xy.length >= 3) ? xy[2].trim() : colox.gridmod.paint.PaintCategory.defaultCategory().id();
-                    add(x, y, cat);
-                }
+            // Tiles in the paint file itself mean a pre-region save: move them into region files.
+            boolean migrate;
+            if (PaintFileFormat.isBinary(source)) {
+                migrate = loadBinary(PaintFileFormat.read(source));
+            } else {
+                migrate = loadLegacyText(new LoadData(source));
             }
             dirty = false;
+            if (source != file) settingsDirty = true;
+            if (migrate) {
+                regions.adoptAllDirty();
+                settingsDirty = true;
+                flushSave();
+            }
         } catch (Throwable t) {
             t.printStackTrace();
         }
     }
 
+    /**
+     * Per-frame streaming hook: loads regions around the camera in the background and
+     * evicts idle ones over {@link GridConfig#paintRegionBudget}.
+     */
+    public static void streamAround(GameCamera camera) {
+        if (camera == null) return;
+        int tileSize = Math.max(1, GridConfig.tileSize);
+        int camX = camera.getX(), camY = camera.getY();
+        regions.updateView(
+                Math.floorDiv(camX, tileSize), Math.floorDiv(camY, tileSize),
+                Math.floorDiv(camX + camera.getWidth(), tileSize), Math.floorDiv(camY + camera.getHeight(), tileSize));
+    }
+
+    /** Pulls every region file of the current world into memory (whole-world exports / snapshots). */
+    public static void loadAllRegions() {
+        regions.loadAll();
+    }
+
+    /** Loads the on-disk regions overlapping the inclusive tile rectangle (selection exports). */
+    public static void loadRegionsIn(int x0, int y0, int x1, int y1) {
+        if (x1 < x0 || y1 < y0) return;
+        int shift = PaintRegionStore.TILE_SHIFT;
+        regions.loadIn(x0 >> shift, y0 >> shift, x1 >> shift, y1 >> shift);
+    }
+
+    /**
+     * Loads the region holding tile (tx, ty) if it has paint on disk and is not resident, unless
+     * that would go over {@link GridConfig#paintRegionBudget} (so the load never evicts another
+     * region). Returns false only when such a region was left unloaded.
+     */
+    static boolean loadRegionAt(int tx, int ty) {
+        int shift = PaintRegionStore.TILE_SHIFT;
+        int rx = tx >> shift, ry = ty >> shift;
+        if (!regions.isUnloaded(rx, ry)) return true;
+        if (regions.residentCount() >= Math.max(1, GridConfig.paintRegionBudget)) return false;
+        regions.loadIn(rx, ry, rx, ry);
+        return true;
+    }
+
+    /** Keeps the regions overlapping the inclusive tile rectangle from being evicted until {@link #unpinRegions}. */
+    static void pinRegionsIn(int x0, int y0, int x1, int y1) {
+        int shift = PaintRegionStore.TILE_SHIFT;
+        regions.pin(x0 >> shift, y0 >> shift, x1 >> shift, y1 >> shift);
+    }
+
+    static void unpinRegions() {
+        regions.unpin();
+    }
+
+    public static int getResidentRegionCount() { return regions.residentCount(); }
+    public static int getRegionFileCount()     { return regions.onDiskCount(); }
+
+    private static boolean loadBinary(PaintFileFormat.Tiles tiles) {
+        enabled = Boolean.parseBoolean(tiles.prop("enabled", "false"));
+        brush   = clampBrush(tiles.intProp("brush", 1));
+        a = tiles.floatProp("a", a);
+        r = tiles.floatProp("r", r);
+        g = tiles.floatProp("g", g);
+        b = tiles.floatProp("b", b);
+
+        addAll(tiles.xs, tiles.ys, tiles.cats, tiles.size);
+        return tiles.size > 0;
+    }
+
+    // v1: SaveData script with "x,y,category;" triples in one string. Parsed into arrays and
+    // written as one addAll batch, like loadBinary.
+    private static boolean loadLegacyText(LoadData ld) {
+        enabled = ld.getBoolean("enabled", false);
+        brush   = clampBrush(ld.getInt("brush", 1));
+
+        a = ld.getFloat("a", a);
+        r = ld.getFloat("r", r);
+        g = ld.getFloat("g", g);
+        b = ld.getFloat("b", b);
+
+        String points = ld.getSafeString("points", "");
+        if (points.isEmpty()) return false;
+        PaintFileFormat.Tiles tiles = new PaintFileFormat.Tiles();
+        for (String pair : points.split(";")) {
+            if (pair.isEmpty()) continue;
+            String[] xy = pair.split(",");
+            if (xy.length < 2) continue;
+            int x = Integer.parseInt(xy[0].trim());
+            int y = Integer.parseInt(xy[1].trim());
+            PaintCategory cat = (xy.length >= 3) ? resolveCategory(xy[2]) : PaintCategory.defaultCategory();
+            tiles.add(x, y, cat);
+        }
+        addAll(tiles.xs, tiles.ys, tiles.cats, tiles.size);
+        return true;
+    }
+
+    private static int clampBrush(int size) {
+        return Math.max(1, Math.min(32, size));
+    }
+
     public static void ensureWorldSynced() {
         String key = WorldKeyProvider.currentWorldKey();
         if (!key.equals(currentWorldKey)) {
@@ -181,14 +911,101 @@ private static File file = ConfigPaths.worldPaintFile(currentWorldKey).toFile();
         }
     }
 
+    /** Explicit save: writes synchronously (on the saver thread) and waits for it. */
     public static void save() {
         ensureWorldSynced();
-        writeCurrentStateToFile();
+        flushSave();
+    }
+
+    /** Forces any pending paint save to disk and blocks until the write completes. */
+    public static void flushSave() {
+        dirty = false;
+        PaintSaveWriter.flush();
+    }
+
+    /** Debounced: queues a background save and lets the writer decide when it is due. */
+    public static void saveIfDirty() {
+        if (dirty) {
+            dirty = false;
+            PaintSaveWriter.requestSave();
+        }
+        PaintSaveWriter.pump();
+    }
+
+    // Older builds wrote the same content to paint_state.txt: move it to the current name, or
+    // read it in place if the move fails (the next save then writes the current name)
+    private static File adoptLegacyPaintFile(Path legacy) {
+        if (file.exists() || !Files.exists(legacy)) return file;
+        try {
+            Files.move(legacy, file.toPath());
+            return file;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return legacy.toFile();
+        }
+    }
+
+    /**
+     * Copies the changed regions (and settings, if they changed) on the caller's thread;
+     * serialization happens in the returned job. Regions are written before the paint file so an
+     * interrupted legacy migration simply runs again on the next load.
+     */
+    static PaintSaveWriter.Job captureSaveJob() {
+        if (file == null) file = ConfigPaths.worldPaintFile(currentWorldKey).toFile();
+        final File target = file;
+        final boolean writeSettings = settingsDirty;
+        settingsDirty = false;
+        final boolean en = enabled;
+        final int br = brush;
+        final float sa = a, sr = r, sg = g, sb = b;
+        final List<PaintRegionStore.RegionCopy> changed = regions.captureDirty();
+        return () -> {
+            for (PaintRegionStore.RegionCopy region : changed) {
+                if (region.chunks.isEmpty()) {
+                    Files.deleteIfExists(region.file.toPath());
+                    continue;
+                }
+                PaintFileFormat.Tiles tiles = new PaintFileFormat.Tiles();
+                collectTiles(region.chunks, tiles);
+                PaintSaveWriter.replaceAtomically(region.file, f -> PaintFileFormat.write(f, tiles));
+            }
+            if (!writeSettings) return;
+            PaintFileFormat.Tiles settings = new PaintFileFormat.Tiles();
+            settings.props.put("layout", "regions");
+            settings.props.put("enabled", Boolean.toString(en));
+            settings.props.put("brush", Integer.toString(br));
+            settings.props.put("a", Float.toString(sa));
+            settings.props.put("r", Float.toString(sr));
+            settings.props.put("g", Float.toString(sg));
+            settings.props.put("b", Float.toString(sb));
+            PaintSaveWriter.replaceAtomically(target, f -> PaintFileFormat.write(f, settings));
+        };
     }
 
-    private static void writeCurrentStateToFile() {
+    private static void collectTiles(List<PaintChunk> source, PaintFileFormat.Tiles out) {
+        for (PaintChunk chunk : source) {
+            int ox = chunk.originX(), oy = chunk.originY();
+            for (PaintLayer layer : LAYERS_BY_DRAW_ORDER) {
+                byte[] data = chunk.layerData(layer.ordinal());
+                if (data == null) continue;
+                for (int idx = 0; idx < PaintChunk.AREA; idx++) {
+                    int code = data[idx] & 0xff;
+                    if (code == 0) continue;
+                    out.add(ox + (idx & PaintChunk.MASK), oy + (idx >> PaintChunk.SHIFT), CATEGORIES[code - 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the current world's paint in the old text format next to the binary file
+     * ({@code paint_state.v1.txt}) so it can be shared with older builds. Returns the file, or null on failure.
+     */
+    public static File exportLegacyText() {
+        ensureWorldSynced();
+        loadAllRegions();
+        File target = ConfigPaths.worldPaintTextExportFile(currentWorldKey).toFile();
         try {
-            if (file == null) file = ConfigPaths.worldPaintFile(currentWorldKey).toFile();
             SaveData sd = new SaveData("gridpaint");
             sd.addBoolean("enabled", enabled);
             sd.addInt("brush", brush);
@@ -201,111 +1018,82 @@ private static File file = ConfigPaths.worldPaintFile(currentWorldKey).toFile();
                 sb.append(entry.x).append(',').append(entry.y).append(',').append(entry.categoryId).append(';');
             }
             sd.addSafeString("points", sb.toString());
-
-            ConfigPaths.modDataDir().toFile().mkdirs();
-            sd.saveScript(file);
-            dirty = false;
+            PaintSaveWriter.replaceAtomically(target, sd::saveScript);
+            return target;
         } catch (Throwable t) {
             t.printStackTrace();
+            return null;
         }
     }
 
-    public static void saveIfDirty() { if (dirty) save(); }
-    public static void markDirty()   { dirty = true; }
+    public static void markDirty()   { dirty = true; settingsDirty = true; }
+
+    private static void tileChanged(PaintChunk chunk, int tx, int ty) {
+        dirty = true;
+        chunk.version = ++version;
+        changeLog.record(version, tx, ty, tx, ty);
+        regions.markChanged(chunk.cx, chunk.cy);
+    }
 
-    private static long key(int x, int y) { return ((long)x << 32) | (y & 0xffffffffL); }
+    /** Like {@link #chunkAt} but first pulls the owning region in from disk if it is not resident. */
+    private static PaintChunk editableChunkAt(int tx, int ty) {
+        int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+        regions.ensureResident(cx, cy);
+        return chunks.get(cx, cy);
+    }
 
     private static PaintCategory resolveCategory(String categoryId) {
         return PaintCategory.byId(categoryId);
     }
 
-    public static final class PaintEntry {
-        public final int x;
-        public final int y;
-        public final String categoryId;
-        public final PaintLayer layer;
-        public PaintEntry(int x, int y, PaintLayer layer, String categoryId) {
-            this.x = x;
-            this.y = y;
-            this.layer = layer;
-            this.categoryId = (categoryId == null)
-                    ? PaintCategory.defaultCategory().id()
-                    : categoryId;
-        }
+    /** Resident chunk at chunk coordinates, or null; read-only use. */
+    static PaintChunk residentChunk(int cx, int cy) {
+        return chunks.get(cx, cy);
     }
 
-    private static final class PaintCell {
-        private final String[] layers = new String[LAYERS.length];
-
-        String set(PaintLayer layer, String categoryId) {
-            if (layer == null) return null;
-            int idx = layer.ordinal();
-            String prev = layers[idx];
-            layers[idx] = categoryId;
-            return prev;
-        }
-
-        boolean clear(PaintLayer layer) {
-            if (layer == null) return false;
-            int idx = layer.ordinal();
-            if (layers[idx] == null) return false;
-            layers[idx] = null;
-            return true;
-        }
+    private static PaintChunk chunkAt(int tx, int ty) {
+        return chunks.get(PaintChunk.chunkCoord(tx), PaintChunk.chunkCoord(ty));
+    }
 
-        boolean clear(PaintLayerFilter filter) {
-            boolean changed = false;
-            for (int i = 0; i < LAYERS.length; i++) {
-                PaintLayer layer = LAYERS[i];
-                if (!filter.matches(layer)) continue;
-                if (layers[i] != null) {
-                    layers[i] = null;
-                    changed = true;
-                }
-            }
-            return changed;
-        }
-
-        boolean isEmpty() {
-            for (String s : layers) {
-                if (s != null) return false;
-            }
-            return true;
+    /** Category on the topmost painted layer of the tile, or null; allocates nothing. */
+    static PaintCategory topCategory(int tx, int ty) {
+        PaintChunk chunk = chunkAt(tx, ty);
+        if (chunk == null) return null;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        for (int l = LAYERS.length - 1; l >= 0; l--) {
+            int code = chunk.get(l, idx);
+            if (code != 0) return CATEGORIES[code - 1];
         }
+        return null;
+    }
 
-        String topCategoryId() {
-            for (int i = layers.length - 1; i >= 0; i--) {
-                if (layers[i] != null) return layers[i];
-            }
-            return null;
-        }
+    private static PaintLayer[] sortedByDrawOrder() {
+        PaintLayer[] sorted = PaintLayer.values();
+        Arrays.sort(sorted, Comparator.comparingInt(PaintLayer::drawOrder));
+        return sorted;
+    }
 
-        PaintEntry topEntry(int x, int y) {
-            for (int i = layers.length - 1; i >= 0; i--) {
-                String cat = layers[i];
-                if (cat != null) {
-                    return new PaintEntry(x, y, LAYERS[i], cat);
-                }
-            }
-            return null;
-        }
+    /** Primitive callback used by the rectangle queries. */
+    @FunctionalInterface
+    public interface TileVisitor {
+        void visit(int tx, int ty, PaintLayer layer, PaintCategory category);
+    }
 
-        void collectEntries(int x, int y, List<PaintEntry> out) {
-            for (int i = 0; i < layers.length; i++) {
-                String cat = layers[i];
-                if (cat == null) continue;
-                out.add(new PaintEntry(x, y, LAYERS[i], cat));
-            }
+    public static final class PaintEntry {
+        public final int x;
+        public final int y;
+        public final PaintCategory category;
+        public final String categoryId;
+        public final PaintLayer layer;
+        public PaintEntry(int x, int y, PaintCategory category) {
+            this.x = x;
+            this.y = y;
+            this.category = (category == null) ? PaintCategory.defaultCategory() : category;
+            this.categoryId = this.category.id();
+            this.layer = this.category.layer();
         }
-
-        List<PaintEntry> entriesDescending(int x, int y) {
-            List<PaintEntry> entries = new ArrayList<>(layers.length);
-            for (int i = layers.length - 1; i >= 0; i--) {
-                String cat = layers[i];
-                if (cat == null) continue;
-                entries.add(new PaintEntry(x, y, LAYERS[i], cat));
-            }
-            return entries;
+        public PaintEntry(int x, int y, PaintLayer layer, String categoryId) {
+            this(x, y, PaintCategory.byId(categoryId));
         }
     }
 }
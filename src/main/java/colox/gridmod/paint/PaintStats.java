@@ -0,0 +1,85 @@
+package colox.gridmod.paint;
+
+import java.util.Arrays;
+
+/**
+ * Live totals for the whole world (resident or not): painted entries per category and per
+ * layer, plus the painted bounding box. Every add/remove adjusts the counters in O(1).
+ * Bounds only grow on add; clearing a tile on the edge of the box marks them stale and
+ * {@link PaintState#getPaintedBounds} recomputes them on the next query.
+ * Regions streaming in or out are not changes and never touch these numbers.
+ */
+final class PaintStats {
+    final long[] byCategory = new long[PaintCategory.values().length];
+    final long[] byLayer = new long[PaintLayer.values().length];
+    long total;
+    int minX, minY, maxX, maxY; // meaningful when total > 0 and !boundsStale
+    boolean boundsStale;
+
+    PaintStats() {
+        reset();
+    }
+
+    void reset() {
+        Arrays.fill(byCategory, 0L);
+        Arrays.fill(byLayer, 0L);
+        total = 0L;
+        emptyBounds();
+    }
+
+    void emptyBounds() {
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        boundsStale = false;
+    }
+
+    /** One (tile, layer) entry went from {@code prevCode} to {@code code} (ordinal + 1, 0 = empty). */
+    void changed(int layer, int prevCode, int code, int tx, int ty) {
+        if (prevCode != 0) {
+            removed(layer, prevCode, 1);
+            if (code == 0) cleared(tx, ty, tx, ty);
+        }
+        if (code != 0) {
+            added(layer, code, 1);
+            grow(tx, ty, tx, ty);
+        }
+    }
+
+    void added(int layer, int code, long n) {
+        byCategory[code - 1] += n;
+        byLayer[layer] += n;
+        total += n;
+    }
+
+    void removed(int layer, int code, long n) {
+        byCategory[code - 1] -= n;
+        byLayer[layer] -= n;
+        total -= n;
+    }
+
+    void grow(int x0, int y0, int x1, int y1) {
+        if (x0 < minX) minX = x0;
+        if (y0 < minY) minY = y0;
+        if (x1 > maxX) maxX = x1;
+        if (y1 > maxY) maxY = y1;
+    }
+
+    /** Something inside the rectangle was erased; the box may shrink if the rectangle reaches its edge. */
+    void cleared(int x0, int y0, int x1, int y1) {
+        if (x0 <= minX || y0 <= minY || x1 >= maxX || y1 >= maxY) boundsStale = true;
+    }
+
+    /** Adds a region file that is on disk but not loaded yet. */
+    void addSummary(PaintFileFormat.Summary summary) {
+        if (summary.total == 0) return;
+        PaintCategory[] cats = PaintCategory.values();
+        for (int c = 0; c < summary.counts.length; c++) {
+            long n = summary.counts[c];
+            if (n == 0) continue;
+            byCategory[c] += n;
+            byLayer[cats[c].layer().ordinal()] += n;
+        }
+        total += summary.total;
+        grow(summary.minX, summary.minY, summary.maxX, summary.maxY);
+    }
+}
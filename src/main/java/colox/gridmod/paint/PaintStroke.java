@@ -0,0 +1,110 @@
+package colox.gridmod.paint;
+
+import colox.gridmod.config.GridConfig;
+
+/*
+// ===========================================================================
+// PURPOSE: Brush strokes across frames.
+// - Each frame's hovered tile is one sample; the brush square is swept along a
+//   Bresenham line from the previous sample, so fast drags leave no gaps.
+// - Tiles already applied during the stroke are skipped (TileBitSet), and a
+//   stationary mouse does no work at all.
+// - The new tiles of a sample (the whole swept segment) are gathered into a
+//   TileBitSet and written with one PaintState.fillMask/eraseMask call, so a
+//   sample is one batch: one version bump and one change-log entry.
+// A stroke ends when a tick passes without a sample (button released, UI took
+// the mouse, paint disabled...) or when any brush parameter changes.
+// ===========================================================================
+*/
+public final class PaintStroke {
+    private PaintStroke() {}
+
+    private static final TileBitSet visited = new TileBitSet();
+    private static final TileBitSet pending = new TileBitSet(); // new tiles of the current sample
+    private static boolean active = false;
+    private static long tick = 0L;
+    private static long lastSampleTick = Long.MIN_VALUE;
+    private static int lastX, lastY;
+    private static boolean strokeErase;
+    private static PaintCategory strokeCategory;
+    private static PaintLayerFilter strokeFilter;
+    private static int strokeBrush;
+
+    /** Called once at the start of every PaintControls tick. */
+    public static void onTick() {
+        tick++;
+    }
+
+    /** Feeds the tile under the cursor for this frame; starts a new stroke if needed. */
+    public static void sample(int tx, int ty, boolean erase, PaintCategory category, PaintLayerFilter filter) {
+        PaintCategory cat = (category == null) ? GridConfig.getActivePaintCategory() : category;
+        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
+        int brush = PaintState.getBrush();
+
+        if (!active || lastSampleTick != tick - 1 || erase != strokeErase || brush != strokeBrush
+                || (erase ? target != strokeFilter : cat != strokeCategory)) {
+            visited.clear();
+            active = true;
+            strokeErase = erase;
+            strokeCategory = cat;
+            strokeFilter = target;
+            strokeBrush = brush;
+            stamp(tx, ty);
+        } else if (tx != lastX || ty != lastY) {
+            sweep(lastX, lastY, tx, ty);
+        }
+        apply();
+        lastX = tx;
+        lastY = ty;
+        lastSampleTick = tick;
+    }
+
+    /** Ends the current stroke (button released, paint disabled, UI took the mouse...). */
+    public static void end() {
+        if (!active) return;
+        active = false;
+        visited.clear();
+    }
+
+    public static boolean isActive() { return active; }
+
+    // Bresenham from (x0,y0) exclusive to (x1,y1) inclusive; the start was stamped last frame.
+    private static void sweep(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0), sx = x0 < x1 ? 1 : -1;
+        int dy = -Math.abs(y1 - y0), sy = y0 < y1 ? 1 : -1;
+        int err = dx + dy;
+        int x = x0, y = y0;
+        while (x != x1 || y != y1) {
+            int e2 = 2 * err;
+            if (e2 >= dy) { err += dy; x += sx; }
+            if (e2 <= dx) { err += dx; y += sy; }
+            stamp(x, y);
+        }
+    }
+
+    // Brush square: side = brush, anchored at floor((brush - 1) / 2).
+    private static void stamp(int cx, int cy) {
+        int half = (strokeBrush - 1) / 2;
+        int x0 = cx - half, y0 = cy - half;
+        int x1 = x0 + strokeBrush - 1, y1 = y0 + strokeBrush - 1;
+        for (int y = y0; y <= y1; y++) {
+            int runStart = Integer.MIN_VALUE;
+            for (int x = x0; x <= x1; x++) {
+                if (visited.add(x, y)) {
+                    if (runStart == Integer.MIN_VALUE) runStart = x;
+                } else if (runStart != Integer.MIN_VALUE) {
+                    pending.addRowSpan(y, runStart, x - 1);
+                    runStart = Integer.MIN_VALUE;
+                }
+            }
+            if (runStart != Integer.MIN_VALUE) pending.addRowSpan(y, runStart, x1);
+        }
+    }
+
+    private static void apply() {
+        if (pending.isEmpty()) return;
+        if (strokeErase) PaintState.eraseMask(pending, strokeFilter);
+        else             PaintState.fillMask(pending, strokeCategory);
+        pending.clear();
+    }
+}
@@ -1,26 +0,0 @@
-package colox.gridmod.paint;
-
-import colox.gridmod.config.GridConfig;
-
-public final class Painter {
-    private Painter() {}
-
-    public static void applyAt(int cx, int cy, boolean erase, String categoryId, PaintLayerFilter filter) {
-        int s = PaintState.getBrush();               // side length
-        int half = (s - 1) / 2;                      // integer floor
-        int startX = cx - half;
-        int startY = cy - half;
-        String cat = categoryId;
-        if (cat == null || cat.isBlank()) {
-            cat = GridConfig.getActivePaintCategory().id();
-        }
-        PaintLayerFilter target = (filter == null) ? PaintLayerFilter.ALL : filter;
-        for (int y = startY; y < startY + s; y++) {
-            for (int x = startX; x < startX + s; x++) {
-                if (erase) PaintState.remove(x, y, target);
-                else       PaintState.add(x, y, cat);
-            }
-        }
-    }
-
-}
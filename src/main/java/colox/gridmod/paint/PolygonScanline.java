@@ -0,0 +1,95 @@
+package colox.gridmod.paint;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Active-edge-table scanline fill of a closed tile polygon (the lasso / edge-fill path).
+ * A tile is inside when a ray from its center crosses the path, drawn through tile
+ * centers, an odd number of times: the rule the lasso has always used. Only rows inside
+ * the path's vertical extent are walked and each run of inside tiles is reported once
+ * as an inclusive span, so the cost is rows x crossings instead of tiles x path length.
+ * Crossings are computed exactly as the former per-tile ray cast did (same edge direction,
+ * same {@code 1e-7} in the divisor), so tiles lying on the path resolve the same way.
+ */
+final class PolygonScanline {
+    private PolygonScanline() {}
+
+    interface SpanVisitor {
+        void span(int ty, int x0, int x1);
+    }
+
+    /** Reports the inside spans of the polygon through {@code path} (closed implicitly), top to bottom. */
+    static void fill(List<Point> path, SpanVisitor out) {
+        int n = path.size();
+        if (n < 3 || out == null) return;
+
+        // Edge table: a non-horizontal edge crosses row ty when yLo <= ty < yHi. The crossing is
+        // xEnd + dx * (ty - yEnd) / (dy + 1e-7) measured from the edge's end point, as before.
+        int[] yLo = new int[n];
+        int[] yHi = new int[n];
+        int[] xEnd = new int[n];
+        int[] yEnd = new int[n];
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+        long[] byStart = new long[n];
+        int edges = 0;
+        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            Point a = path.get(i);
+            Point b = path.get(i + 1 == n ? 0 : i + 1);
+            if (a.y == b.y) continue;
+            int lo = Math.min(a.y, b.y), hi = Math.max(a.y, b.y);
+            yLo[edges] = lo;
+            yHi[edges] = hi;
+            xEnd[edges] = b.x;
+            yEnd[edges] = b.y;
+            dx[edges] = a.x - b.x;
+            dy[edges] = (a.y - b.y) + 1e-7;
+            byStart[edges] = ((long) lo << 32) | edges;
+            if (lo < minY) minY = lo;
+            if (hi > maxY) maxY = hi;
+            edges++;
+        }
+        if (edges < 2) return;
+        Arrays.sort(byStart, 0, edges);
+
+        int[] active = new int[edges];
+        double[] xs = new double[edges];
+        int activeCount = 0;
+        int next = 0;
+        for (int ty = minY; ty < maxY; ty++) {
+            // Edges starting on this row join, finished ones leave
+            while (next < edges && (int)(byStart[next] >> 32) == ty) {
+                active[activeCount++] = (int) byStart[next++];
+            }
+            int kept = 0;
+            for (int k = 0; k < activeCount; k++) {
+                int e = active[k];
+                if (yHi[e] > ty) active[kept++] = e;
+            }
+            activeCount = kept;
+            if (activeCount < 2) continue;
+
+            // Crossings sorted along the row (insertion sort: the list is short and mostly ordered)
+            for (int k = 0; k < activeCount; k++) {
+                int e = active[k];
+                double x = dx[e] * (ty - yEnd[e]) / dy[e] + xEnd[e];
+                int j = k - 1;
+                while (j >= 0 && xs[j] > x) {
+                    xs[j + 1] = xs[j];
+                    j--;
+                }
+                xs[j + 1] = x;
+            }
+
+            // Tile tx is inside when an odd number of crossings lie strictly right of it
+            for (int k = 0; k + 1 < activeCount; k += 2) {
+                int x0 = (int) Math.ceil(xs[k]);
+                int x1 = (int) Math.ceil(xs[k + 1]) - 1;
+                if (x0 <= x1) out.span(ty, x0, x1);
+            }
+        }
+    }
+}
@@ -10,7 +10,20 @@ import colox.gridmod.config.GridConfig;
  * - Modes: NONE / RECT / EDGE (stroke) / EDGE_FILL (stroke + polygon fill) / LASSO_FILL (polygon)
  * - EDGE: selects tiles crossed by the stroke.
  * - EDGE_FILL: behaves like EDGE during drag, but on release also fills the polygon traced by the stroke path.
- * - LASSO_FILL: polygon lasso using tile-center point-in-polygon.
+ * - LASSO_FILL: polygon lasso; tiles whose center lies inside the path (through tile centers).
+ * - WAND: click a painted tile to select its connected region of the same category (or layer),
+ *   grown by WandFill in time slices (stepWand() each tick) up to GridConfig.wandMaxTiles,
+ *   loading the on-disk regions it reaches while the region budget allows.
+ * - Combine ops: a finished drag REPLACEs the selection or is ADDed, SUBTRACTed or INTERSECTed
+ *   with it (sticky op from the quick palette, or a held modifier for one drag); invert() flips
+ *   it within the painted tiles. Drag modes share the selection, so shapes can be mixed.
+ * - The drag region (RECT rows and polygon fills as row spans via PolygonScanline, stroke tiles)
+ *   is combined into an unfiltered area bitmap; the selection is that area ANDed with the
+ *   painted tiles matching the filter. All of it is word-parallel over 32x32 chunk bitmaps.
+ * - ALL: virtual; every painted tile in the world matching the selection filter. Never
+ *   materialized, so refreshing it each tick only bumps the revision when the paint version
+ *   moves. Count and HUD come from the world-wide PaintStats; saves call loadSelectedRegions()
+ *   first, which pulls in every region so nothing on disk is dropped.
  *
  * Search anchors:
  *   // [SEL] public API
@@ -19,10 +32,15 @@ import colox.gridmod.config.GridConfig;
  */
 public final class SelectionState {
 
-    public enum Mode { NONE, RECT, EDGE, EDGE_FILL, LASSO_FILL, ALL }
+    public enum Mode { NONE, RECT, EDGE, EDGE_FILL, LASSO_FILL, WAND, ALL }
+
+    /** How a finished drag combines with the current selection. */
+    public enum CombineOp { REPLACE, ADD, SUBTRACT, INTERSECT }
 
     // -------- Singleton --------
     private static Mode mode = Mode.NONE;
+    private static CombineOp combineOp = CombineOp.REPLACE; // sticky, set from the quick palette
+    private static CombineOp dragOp = CombineOp.REPLACE;    // in effect for the current drag
 
     // Drag state
     private static boolean dragging = false;
@@ -30,15 +48,38 @@ public final class SelectionState {
     private static int dragEndTx, dragEndTy;
 
     // Stroke tiles for EDGE / EDGE_FILL
-    private static final LinkedHashSet<Long> lassoStroke = new LinkedHashSet<>();
+    private static final TileBitSet lassoStroke = new TileBitSet();
     private static int lastDragTx, lastDragTy;
 
+    // WAND region grow; its op is the drag op of the click that started it
+    private static final WandFill wand = new WandFill();
+    private static CombineOp wandOp = CombineOp.REPLACE;
+    private static final long WAND_SLICE_NANOS = 2_000_000L; // per tick while a fill is running
+
     // Polygon path tiles for EDGE_FILL / LASSO_FILL (store tile centers along the path)
     private static final ArrayList<Point> lassoPath = new ArrayList<>();
 
-    // Computed selection
-    private static final LinkedHashSet<Long> selected = new LinkedHashSet<>();
-    private static int lastCount = 0;
+    // Selected area before the paint filter: drag regions combined by their ops
+    private static final TileBitSet area = new TileBitSet();
+    // Scratch: region of the drag being committed / complement while inverting
+    private static final TileBitSet region = new TileBitSet();
+
+    // Computed selection (chunked bitmap: cardinality and bounds are cached by the set).
+    // Empty in ALL mode, which is virtual: every painted tile matching the selection filter,
+    // resolved against PaintState on demand; only its count/bounds are cached, per paint version.
+    private static final TileBitSet selected = new TileBitSet();
+    private static long allCountVersion = -1L, allBoundsVersion = -1L;
+    private static PaintLayerFilter allCountFilter, allBoundsFilter;
+    private static int allCount;
+    private static boolean allBoundsFound;
+    private static final int[] allBounds = new int[4];
+    private static final int[] exportBounds = new int[4];
+    // Inputs of the last computeSelection(); refreshSelection() skips when they still match
+    private static long computedPaintVersion = -1L;
+    private static PaintLayerFilter computedFilter;
+    private static Mode computedMode;
+    // Bumped on every selection change so readers (HUD) can cache derived data
+    private static long revision = 0L;
 
     private SelectionState() {}
 
@@ -48,16 +89,35 @@ public final class SelectionState {
 
     public static Mode getMode() { return mode; }
 
-    /** Sets the mode; also clears any current selection. */
+    /**
+     * Sets the mode. Switching between drag modes keeps the selection (so shapes can be combined);
+     * entering or leaving NONE / ALL clears it.
+     */
     public static void setMode(Mode m) {
         if (m == null) m = Mode.NONE;
+        boolean keep = isDragMode(mode) && isDragMode(m);
         mode = m;
+        if (keep) {
+            cancelDrag();
+            refreshSelection();
+            return;
+        }
         clear();
         if (mode == Mode.ALL) {
             refreshSelection();
         }
     }
 
+    public static CombineOp getCombineOp() { return combineOp; }
+
+    /** Sets the op used by drags started without an override. */
+    public static void setCombineOp(CombineOp op) {
+        combineOp = (op == null) ? CombineOp.REPLACE : op;
+    }
+
+    /** Op of the current (or last) drag. */
+    public static CombineOp getDragOp() { return dragOp; }
+
     public static boolean isActive() { return mode != Mode.NONE; }
 
     /** Deactivates the selection without changing the current draw mode. */
@@ -67,7 +127,14 @@ public final class SelectionState {
     }
 
     public static void beginDrag(int tx, int ty) {
+        beginDrag(tx, ty, null);
+    }
+
+    /** Starts a drag; {@code op} overrides the sticky combine op for this drag (null = use it). */
+    public static void beginDrag(int tx, int ty, CombineOp op) {
         if (mode == Mode.NONE) return;
+        if (wand.isRunning()) finishWand(Long.MAX_VALUE); // a new click builds on the pending fill
+        dragOp = (op != null) ? op : combineOp;
         dragging = true;
         dragStartTx = tx;
         dragStartTy = ty;
@@ -81,10 +148,10 @@ public final class SelectionState {
 
         switch (mode) {
             case EDGE:
-                lassoStroke.add(key(tx, ty));
+                lassoStroke.add(tx, ty);
                 break;
             case EDGE_FILL:
-                lassoStroke.add(key(tx, ty));
+                lassoStroke.add(tx, ty);
                 lassoPath.add(new Point(tx, ty));
                 break;
             case LASSO_FILL:
@@ -130,52 +197,168 @@ public final class SelectionState {
     public static void endDrag() {
         if (!dragging) return;
         dragging = false;
+        commitDrag();
+    }
+
+    /**
+     * Inverts the selection within the painted tiles matching the selection filter. No-op without
+     * a drag mode (ALL has an empty complement) or while dragging.
+     */
+    public static void invert() {
+        if (!isDragMode(mode) || dragging) return;
+        if (wand.isRunning()) finishWand(Long.MAX_VALUE);
+        refreshSelection();
+        PaintState.occupiedInto(GridConfig.getPaintSelectionFilter(), region);
+        region.andNot(selected);
+        area.clear();
+        area.or(region);
+        region.clear();
         computeSelection();
     }
 
     /** Clears current selection and any in-progress drag. */
     public static void clear() {
-        dragging = false;
-        lassoStroke.clear();
-        lassoPath.clear();
+        cancelDrag();
+        area.clear();
         selected.clear();
-        lastCount = 0;
+        computedPaintVersion = -1L;
         notifyChange();
     }
 
     public static boolean isDragging() { return dragging; }
 
+    /** Continues a running WAND fill for one time slice; call once per tick. */
+    public static void stepWand() {
+        if (wand.isRunning()) finishWand(WAND_SLICE_NANOS);
+    }
+
+    /** True while a WAND fill is still growing. */
+    public static boolean isWandFilling() { return wand.isRunning(); }
+
+    /** True if the last WAND fill stopped at GridConfig.wandMaxTiles. */
+    public static boolean wasWandTruncated() { return wand.wasTruncated(); }
+
+    /** True if the last WAND fill skipped paint in regions it could not load (region budget full). */
+    public static boolean wasWandCutShort() { return wand.wasCutShort(); }
+
     public static int getDragStartTx() { return dragStartTx; }
     public static int getDragStartTy() { return dragStartTy; }
     public static int getDragEndTx()   { return dragEndTx; }
     public static int getDragEndTy()   { return dragEndTy; }
 
-    /** Live hover stroke (EDGE/EDGE_FILL). */
+    /** Live hover stroke (EDGE/EDGE_FILL). Allocates; per-frame code should use forEachStrokeTileInRect. */
     public static List<long[]> getHoverStrokePoints() {
         ArrayList<long[]> out = new ArrayList<>(lassoStroke.size());
-        for (long k : lassoStroke) out.add(new long[]{ (int)(k >> 32), (int)k });
+        lassoStroke.forEach((tx, ty) -> out.add(new long[]{ tx, ty }));
         return out;
     }
 
+    /** Visits the live stroke tiles inside the inclusive rectangle without allocating. */
+    public static void forEachStrokeTileInRect(int x0, int y0, int x1, int y1, TileBitSet.TileConsumer visitor) {
+        lassoStroke.forEachInRect(x0, y0, x1, y1, visitor);
+    }
+
     /** Live lasso polygon path (EDGE_FILL/LASSO_FILL). */
     public static List<Point> getLassoPath() {
         return Collections.unmodifiableList(lassoPath);
     }
 
-    public static int getSelectedCount() { return lastCount; }
+    /**
+     * Selected tiles. In ALL mode: painted entries on the layers matching the selection filter
+     * across the whole world, loaded or not (a tile painted on two such layers counts twice).
+     */
+    public static int getSelectedCount() {
+        if (mode != Mode.ALL) return selected.size();
+        long version = PaintState.getVersion();
+        PaintLayerFilter filter = GridConfig.getPaintSelectionFilter();
+        if (version != allCountVersion || filter != allCountFilter) {
+            long n = 0;
+            for (PaintLayer layer : PaintLayer.values()) {
+                if (filter.matches(layer)) n += PaintState.getLayerCount(layer);
+            }
+            allCount = (int) Math.min(Integer.MAX_VALUE, n);
+            allCountVersion = version;
+            allCountFilter = filter;
+        }
+        return allCount;
+    }
+
+    /** Changes whenever the selected set may have changed. */
+    public static long getRevision() { return revision; }
 
-    /** Snapshot of selected absolute tiles as long[] {x,y}. */
+    /** Snapshot of selected absolute tiles as long[] {x,y}. Allocates per tile: for saving, not per frame. */
     public static List<long[]> getSelectedPoints() {
-        ArrayList<long[]> out = new ArrayList<>(selected.size());
-        for (long k : selected) out.add(new long[]{ (int)(k >> 32), (int)k });
+        ArrayList<long[]> out = new ArrayList<>(getSelectedCount());
+        forEachSelected((tx, ty) -> out.add(new long[]{ tx, ty }));
         return out;
     }
 
+    /**
+     * Before exporting the selection (blueprint save): loads the on-disk regions under the
+     * selected area so tiles in evicted regions are not dropped, then refreshes the selection.
+     * ALL loads every region of the world.
+     */
+    public static void loadSelectedRegions() {
+        if (mode == Mode.ALL) {
+            PaintState.loadAllRegions();
+            return;
+        }
+        if (!isDragMode(mode) || !area.bounds(exportBounds)) return;
+        PaintState.loadRegionsIn(exportBounds[0], exportBounds[1], exportBounds[2], exportBounds[3]);
+        refreshSelection();
+    }
+
+    /** Visits every selected tile without allocating. */
+    public static void forEachSelected(TileBitSet.TileConsumer visitor) {
+        if (mode == Mode.ALL) {
+            PaintState.forEachOccupiedInRect(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                    GridConfig.getPaintSelectionFilter(), visitor);
+            return;
+        }
+        selected.forEach(visitor);
+    }
+
+    /** Visits the selected tiles inside the inclusive rectangle; only overlapping chunks are touched. */
+    public static void forEachSelectedInRect(int x0, int y0, int x1, int y1, TileBitSet.TileConsumer visitor) {
+        if (mode == Mode.ALL) {
+            PaintState.forEachOccupiedInRect(x0, y0, x1, y1, GridConfig.getPaintSelectionFilter(), visitor);
+            return;
+        }
+        selected.forEachInRect(x0, y0, x1, y1, visitor);
+    }
+
+    /** Bounds {minX, minY, maxX, maxY} of the selection into {@code out}; false when empty. */
+    public static boolean getSelectedBounds(int[] out) {
+        if (mode != Mode.ALL) return selected.bounds(out);
+        long version = PaintState.getVersion();
+        PaintLayerFilter filter = GridConfig.getPaintSelectionFilter();
+        if (version != allBoundsVersion || filter != allBoundsFilter) {
+            allBounds[0] = allBounds[1] = Integer.MAX_VALUE;
+            allBounds[2] = allBounds[3] = Integer.MIN_VALUE;
+            forEachSelected(ALL_BOUNDS);
+            allBoundsFound = allBounds[2] != Integer.MIN_VALUE;
+            allBoundsVersion = version;
+            allBoundsFilter = filter;
+        }
+        if (!allBoundsFound) return false;
+        System.arraycopy(allBounds, 0, out, 0, 4);
+        return true;
+    }
+
     /** True if a given tile is currently selected. */
-    public static boolean isTileSelected(int tx, int ty) { return selected.contains(key(tx, ty)); }
+    public static boolean isTileSelected(int tx, int ty) {
+        if (mode == Mode.ALL) return PaintState.isOccupied(tx, ty, GridConfig.getPaintSelectionFilter());
+        return selected.contains(tx, ty);
+    }
 
+    /** Recomputes the selection unless neither the paint, the selection filter, nor the mode changed. */
     public static void refreshSelection() {
         if (!isActive()) return;
+        if (computedPaintVersion == PaintState.getVersion()
+                && computedFilter == GridConfig.getPaintSelectionFilter()
+                && computedMode == mode) {
+            return;
+        }
         computeSelection();
     }
 
@@ -183,79 +366,90 @@ public final class SelectionState {
     // [SEL] compute selection
     // ==========================================================
 
-    private static void computeSelection() {
-        selected.clear();
-
-        // Build quick lookup of painted tiles
-        HashSet<Long> painted = new HashSet<>();
-        PaintLayerFilter filter = GridConfig.getPaintSelectionFilter();
-        for (PaintState.PaintEntry p : PaintState.iterateSnapshot()) {
-            if (!filter.matches(p.layer)) continue;
-            painted.add(key(p.x, p.y));
-        }
-        if (painted.isEmpty()) {
-            lastCount = 0;
-            notifyChange();
-            return;
-        }
-
+    /** Rasterizes the finished drag into {@code region} and combines it into the area. */
+    private static void commitDrag() {
+        region.clear();
         switch (mode) {
             case RECT: {
                 int x0 = Math.min(dragStartTx, dragEndTx);
                 int y0 = Math.min(dragStartTy, dragEndTy);
                 int x1 = Math.max(dragStartTx, dragEndTx);
                 int y1 = Math.max(dragStartTy, dragEndTy);
-                for (int ty = y0; ty <= y1; ty++) {
-                    for (int tx = x0; tx <= x1; tx++) {
-                        long k = key(tx, ty);
-                        if (painted.contains(k)) selected.add(k);
-                    }
-                }
+                for (int ty = y0; ty <= y1; ty++) region.addRowSpan(ty, x0, x1);
                 break;
             }
-            case EDGE: {
-                for (long k : lassoStroke) {
-                    if (painted.contains(k)) selected.add(k);
-                }
+            case EDGE:
+                region.or(lassoStroke);
                 break;
-            }
-            case EDGE_FILL: {
-                // 1) edge hits
-                for (long k : lassoStroke) {
-                    if (painted.contains(k)) selected.add(k);
-                }
-                // 2) polygon fill of the stroke path
-                if (lassoPath.size() >= 3) {
-                    List<Point> poly = closedCopy(lassoPath);
-                    for (long k : painted) {
-                        int tx = (int)(k >> 32);
-                        int ty = (int)k;
-                        if (pointInPolygon(tx + 0.5, ty + 0.5, poly)) selected.add(k);
-                    }
-                }
+            case EDGE_FILL:
+                // stroke tiles plus the polygon traced by the stroke path
+                region.or(lassoStroke);
+                PolygonScanline.fill(lassoPath, REGION_SPAN);
                 break;
-            }
-            case LASSO_FILL: {
-                if (lassoPath.size() >= 3) {
-                    List<Point> poly = closedCopy(lassoPath);
-                    for (long k : painted) {
-                        int tx = (int)(k >> 32);
-                        int ty = (int)k;
-                        if (pointInPolygon(tx + 0.5, ty + 0.5, poly)) selected.add(k);
-                    }
-                }
+            case LASSO_FILL:
+                PolygonScanline.fill(lassoPath, REGION_SPAN);
                 break;
-            }
-            case ALL:
-                selected.addAll(painted);
+            case WAND:
+                // Grown over the next ticks; combined when complete (small regions finish here)
+                wandOp = dragOp;
+                wand.start(dragStartTx, dragStartTy, GridConfig.getPaintSelectionFilter(),
+                        GridConfig.wandMatchLayer, GridConfig.wandDiagonal, GridConfig.wandMaxTiles);
+                finishWand(WAND_SLICE_NANOS);
+                return;
+            default:
+                return;
+        }
+
+        combine(region, dragOp);
+        region.clear();
+        computeSelection();
+    }
+
+    private static void combine(TileBitSet r, CombineOp op) {
+        switch (op) {
+            case ADD:       area.or(r); break;
+            case SUBTRACT:  area.andNot(r); break;
+            case INTERSECT: area.and(r); break;
+            default:
+                area.clear();
+                area.or(r);
                 break;
-            default: break;
+        }
+    }
+
+    /** Runs the wand for up to {@code budgetNanos}; combines its region once the fill completes. */
+    private static void finishWand(long budgetNanos) {
+        if (!wand.step(budgetNanos)) return;
+        combine(wand.tiles(), wandOp);
+        wand.tiles().clear();
+        computeSelection();
+    }
+
+    private static void computeSelection() {
+        computedPaintVersion = PaintState.getVersion();
+        computedFilter = GridConfig.getPaintSelectionFilter();
+        computedMode = mode;
+
+        if (mode == Mode.ALL) {
+            // Virtual: nothing to materialize, readers resolve it against PaintState
+            selected.clear();
+        } else {
+            // One AND per 64 tiles against the chunks' occupancy bitmaps
+            PaintState.intersectOccupied(area, computedFilter, selected);
         }
 
-        lastCount = selected.size();
         notifyChange();
     }
 
+    private static final PolygonScanline.SpanVisitor REGION_SPAN = (ty, x0, x1) -> region.addRowSpan(ty, x0, x1);
+
+    private static final TileBitSet.TileConsumer ALL_BOUNDS = (tx, ty) -> {
+        if (tx < allBounds[0]) allBounds[0] = tx;
+        if (ty < allBounds[1]) allBounds[1] = ty;
+        if (tx > allBounds[2]) allBounds[2] = tx;
+        if (ty > allBounds[3]) allBounds[3] = ty;
+    };
+
     private static Runnable changeListener = () -> {};
 
     public static void setChangeListener(Runnable listener) {
@@ -263,6 +457,7 @@ public final class SelectionState {
     }
 
     private static void notifyChange() {
+        revision++;
         try { changeListener.run(); } catch (Throwable ignored) {}
     }
 
@@ -270,20 +465,19 @@ public final class SelectionState {
     // [SEL] helpers
     // ==========================================================
 
-    private static List<Point> closedCopy(List<Point> path) {
-        if (path.isEmpty()) return Collections.emptyList();
-        Point f = path.get(0);
-        Point l = path.get(path.size() - 1);
-        if (f.x == l.x && f.y == l.y) return path;
-        ArrayList<Point> c = new ArrayList<>(path);
-        c.add(new Point(f.x, f.y));
-        return c;
+    private static boolean isDragMode(Mode m) {
+        return m != Mode.NONE && m != Mode.ALL;
     }
 
-    private static long key(int x, int y) { return ((long)x << 32) | (y & 0xffffffffL); }
+    private static void cancelDrag() {
+        wand.cancel();
+        dragging = false;
+        lassoStroke.clear();
+        lassoPath.clear();
+    }
 
     /** Adds all grid tiles touched by a straight line from (x0,y0) to (x1,y1). */
-    private static void addLineTiles(int x0, int y0, int x1, int y1, LinkedHashSet<Long> out) {
+    private static void addLineTiles(int x0, int y0, int x1, int y1, TileBitSet out) {
         int dx = Math.abs(x1 - x0);
         int dy = Math.abs(y1 - y0);
         int sx = x0 < x1 ? 1 : -1;
@@ -291,29 +485,12 @@ public final class SelectionState {
         int err = dx - dy;
 
         int x = x0, y = y0;
-        out.add(key(x, y));
+        out.add(x, y);
         while (x != x1 || y != y1) {
             int e2 = 2 * err;
             if (e2 > -dy) { err -= dy; x += sx; }
             if (e2 <  dx) { err += dx; y += sy; }
-            out.add(key(x, y));
-        }
-    }
-
-    private static boolean pointInPolygon(double x, double y, List<Point> poly) {
-        // Standard ray-casting algorithm on tile centers
-        boolean inside = false;
-        int n = poly.size();
-        for (int i = 0, j = n - 1; i < n; j = i++) {
-            double xi = poly.get(i).x + 0.5;
-            double yi = poly.get(i).y + 0.5;
-            double xj = poly.get(j).x + 0.5;
-            double yj = poly.get(j).y + 0.5;
-
-            boolean intersect = ((yi > y) != (yj > y))
-                    && (x < (xj - xi) * (y - yi) / (yj - yi + 1e-7) + xi);
-            if (intersect) inside = !inside;
+            out.add(x, y);
         }
-        return inside;
     }
 }
@@ -0,0 +1,321 @@
+package colox.gridmod.paint;
+
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * Sparse set of tile coordinates stored as one 32x32 bitmap ({@code long[16]}) per
+ * {@link PaintChunk}-sized block. The last block touched is cached, so runs of nearby
+ * tiles (brush rows, stroke segments) cost one map lookup per block rather than per tile.
+ * <p>
+ * A block holds up to 1024 tiles in 128 bytes and is dropped when it empties. Cardinality
+ * is kept on every change and the bounds are cached (recomputed lazily after removals).
+ * {@link #forEach} and {@link #forEachInRect} iterate set bits without allocating; the
+ * rectangle form only visits blocks overlapping the rectangle.
+ * <p>
+ * Set algebra ({@link #or}, {@link #and}, {@link #andNot}) and {@link #addRowSpan} work a
+ * 64-tile word at a time. Not thread-safe.
+ */
+public final class TileBitSet {
+    private static final int WORDS = PaintChunk.AREA / 64;
+
+    /** Receives set tiles in {@link #forEach} / {@link #forEachInRect}. */
+    public interface TileConsumer {
+        void accept(int tx, int ty);
+    }
+
+    /** Receives each block's bitmap (bit {@code PaintChunk.index(lx, ly)}); the words must not be modified. */
+    interface BlockVisitor {
+        void visit(int cx, int cy, long[] words);
+    }
+
+    private static final class Block {
+        final int cx, cy;
+        final long[] bits = new long[WORDS];
+        int count;
+
+        Block(int cx, int cy) {
+            this.cx = cx;
+            this.cy = cy;
+        }
+    }
+
+    private final HashMap<Long, Block> blocks = new HashMap<>();
+    private long lastKey = Long.MIN_VALUE;
+    private Block lastBlock;
+    private int size;
+    // Cached bounds; only valid while boundsValid (adds extend them, removals invalidate)
+    private int minX, minY, maxX, maxY;
+    private boolean boundsValid = true;
+
+    /** Adds the tile; returns true if it was not already present. */
+    public boolean add(int tx, int ty) {
+        Block block = block(PaintChunk.chunkCoord(tx), PaintChunk.chunkCoord(ty), true);
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        long bit = 1L << (idx & 63);
+        long word = block.bits[idx >>> 6];
+        if ((word & bit) != 0) return false;
+        block.bits[idx >>> 6] = word | bit;
+        block.count++;
+        if (size++ == 0) {
+            minX = maxX = tx;
+            minY = maxY = ty;
+            boundsValid = true;
+        } else if (boundsValid) {
+            if (tx < minX) minX = tx;
+            if (tx > maxX) maxX = tx;
+            if (ty < minY) minY = ty;
+            if (ty > maxY) maxY = ty;
+        }
+        return true;
+    }
+
+    /** Removes the tile; returns true if it was present. */
+    public boolean remove(int tx, int ty) {
+        int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+        Block block = block(cx, cy, false);
+        if (block == null) return false;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        long bit = 1L << (idx & 63);
+        long word = block.bits[idx >>> 6];
+        if ((word & bit) == 0) return false;
+        block.bits[idx >>> 6] = word & ~bit;
+        size--;
+        if (--block.count == 0) {
+            blocks.remove(PaintChunk.key(cx, cy));
+            lastKey = Long.MIN_VALUE;
+            lastBlock = null;
+        }
+        if (tx == minX || tx == maxX || ty == minY || ty == maxY) boundsValid = false;
+        return true;
+    }
+
+    /** Adds tiles x0..x1 (inclusive) of row ty: one masked OR per block the span crosses. */
+    public void addRowSpan(int ty, int x0, int x1) {
+        if (x1 < x0) return;
+        int cy = PaintChunk.chunkCoord(ty);
+        int ly = PaintChunk.local(ty);
+        int w = ly >> 1, shift = (ly & 1) << PaintChunk.SHIFT;
+        for (int cx = PaintChunk.chunkCoord(x0), cx1 = PaintChunk.chunkCoord(x1); cx <= cx1; cx++) {
+            int ox = cx << PaintChunk.SHIFT;
+            int lx0 = PaintChunk.clampLocal((long) x0 - ox), lx1 = PaintChunk.clampLocal((long) x1 - ox);
+            long mask = (((1L << (lx1 - lx0 + 1)) - 1L) << lx0) << shift;
+            Block block = block(cx, cy, true);
+            long word = block.bits[w];
+            int added = Long.bitCount(mask & ~word);
+            if (added == 0) continue;
+            block.bits[w] = word | mask;
+            block.count += added;
+            if (size == 0) {
+                minX = ox + lx0; maxX = ox + lx1;
+                minY = maxY = ty;
+                boundsValid = true;
+            } else if (boundsValid) {
+                if (ox + lx0 < minX) minX = ox + lx0;
+                if (ox + lx1 > maxX) maxX = ox + lx1;
+                if (ty < minY) minY = ty;
+                if (ty > maxY) maxY = ty;
+            }
+            size += added;
+        }
+    }
+
+    /** Adds every tile of {@code other} (union). */
+    public void or(TileBitSet other) {
+        if (other == this || other.size == 0) return;
+        for (Block src : other.blocks.values()) orWords(src.cx, src.cy, src.bits, null);
+    }
+
+    /** Keeps only the tiles also in {@code other} (intersection). */
+    public void and(TileBitSet other) {
+        if (other == this || size == 0) return;
+        Iterator<Block> it = blocks.values().iterator();
+        while (it.hasNext()) {
+            Block block = it.next();
+            Block mask = other.blocks.get(PaintChunk.key(block.cx, block.cy));
+            int count = 0;
+            if (mask != null) {
+                for (int w = 0; w < WORDS; w++) count += Long.bitCount(block.bits[w] &= mask.bits[w]);
+            }
+            size -= block.count - count;
+            block.count = count;
+            if (count == 0) it.remove();
+        }
+        lastKey = Long.MIN_VALUE;
+        lastBlock = null;
+        boundsValid = false;
+    }
+
+    /** Removes every tile of {@code other} (difference). */
+    public void andNot(TileBitSet other) {
+        if (other == this) {
+            clear();
+            return;
+        }
+        if (size == 0 || other.size == 0) return;
+        for (Block mask : other.blocks.values()) {
+            long k = PaintChunk.key(mask.cx, mask.cy);
+            Block block = blocks.get(k);
+            if (block == null) continue;
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) count += Long.bitCount(block.bits[w] &= ~mask.bits[w]);
+            if (count == block.count) continue;
+            size -= block.count - count;
+            block.count = count;
+            boundsValid = false;
+            if (count == 0) blocks.remove(k);
+        }
+        lastKey = Long.MIN_VALUE;
+        lastBlock = null;
+    }
+
+    /**
+     * ORs {@code words & mask} ({@code mask} may be null) into block (cx, cy); the block is only
+     * created when something is added. Bounds are recomputed lazily afterwards.
+     */
+    void orWords(int cx, int cy, long[] words, long[] mask) {
+        Block block = null;
+        int added = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = (mask == null) ? words[w] : (words[w] & mask[w]);
+            if (word == 0L) continue;
+            if (block == null) block = block(cx, cy, true);
+            long fresh = word & ~block.bits[w];
+            if (fresh == 0L) continue;
+            block.bits[w] |= fresh;
+            added += Long.bitCount(fresh);
+        }
+        if (added == 0) return;
+        block.count += added;
+        size += added;
+        boundsValid = false;
+    }
+
+    /** Visits every block's bitmap (unordered). */
+    void forEachBlock(BlockVisitor visitor) {
+        for (Block block : blocks.values()) visitor.visit(block.cx, block.cy, block.bits);
+    }
+
+    public boolean contains(int tx, int ty) {
+        Block block = block(PaintChunk.chunkCoord(tx), PaintChunk.chunkCoord(ty), false);
+        if (block == null) return false;
+        int idx = PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty));
+        return (block.bits[idx >>> 6] & (1L << (idx & 63))) != 0;
+    }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /** Number of tiles in the set. */
+    public int size() { return size; }
+
+    /** Bounds {minX, minY, maxX, maxY} (inclusive) into {@code out}; false when empty. */
+    public boolean bounds(int[] out) {
+        if (size == 0) return false;
+        if (!boundsValid) recomputeBounds();
+        out[0] = minX; out[1] = minY; out[2] = maxX; out[3] = maxY;
+        return true;
+    }
+
+    public void clear() {
+        blocks.clear();
+        lastKey = Long.MIN_VALUE;
+        lastBlock = null;
+        size = 0;
+        boundsValid = true;
+    }
+
+    /** Visits every tile, block by block (row-major inside a block). */
+    public void forEach(TileConsumer visitor) {
+        if (size == 0 || visitor == null) return;
+        for (Block block : blocks.values()) {
+            visitBlock(block, 0, 0, PaintChunk.MASK, PaintChunk.MASK, visitor);
+        }
+    }
+
+    /** Visits the tiles inside the inclusive rectangle; only overlapping blocks are touched. */
+    public void forEachInRect(int x0, int y0, int x1, int y1, TileConsumer visitor) {
+        if (size == 0 || visitor == null || x1 < x0 || y1 < y0) return;
+        int cx0 = PaintChunk.chunkCoord(x0), cy0 = PaintChunk.chunkCoord(y0);
+        int cx1 = PaintChunk.chunkCoord(x1), cy1 = PaintChunk.chunkCoord(y1);
+        long span = (long)(cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+        if (span > blocks.size()) {
+            for (Block block : blocks.values()) {
+                if (block.cx < cx0 || block.cx > cx1 || block.cy < cy0 || block.cy > cy1) continue;
+                visitClipped(block, x0, y0, x1, y1, visitor);
+            }
+            return;
+        }
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                Block block = blocks.get(PaintChunk.key(cx, cy));
+                if (block != null) visitClipped(block, x0, y0, x1, y1, visitor);
+            }
+        }
+    }
+
+    private static void visitClipped(Block block, int x0, int y0, int x1, int y1, TileConsumer visitor) {
+        int ox = block.cx << PaintChunk.SHIFT, oy = block.cy << PaintChunk.SHIFT;
+        int lx0 = PaintChunk.clampLocal((long) x0 - ox), lx1 = PaintChunk.clampLocal((long) x1 - ox);
+        int ly0 = PaintChunk.clampLocal((long) y0 - oy), ly1 = PaintChunk.clampLocal((long) y1 - oy);
+        if (lx0 <= lx1 && ly0 <= ly1) visitBlock(block, lx0, ly0, lx1, ly1, visitor);
+    }
+
+    // Two 32-tile rows per word; bits outside the local rectangle are masked off.
+    private static void visitBlock(Block block, int lx0, int ly0, int lx1, int ly1, TileConsumer visitor) {
+        int ox = block.cx << PaintChunk.SHIFT, oy = block.cy << PaintChunk.SHIFT;
+        long rowMask = ((1L << (lx1 - lx0 + 1)) - 1L) << lx0;
+        long[] bits = block.bits;
+        for (int w = ly0 >> 1, wEnd = ly1 >> 1; w <= wEnd; w++) {
+            long word = bits[w];
+            if (word == 0L) continue;
+            int evenRow = w << 1;
+            long mask = 0L;
+            if (evenRow >= ly0) mask |= rowMask;
+            if (evenRow + 1 <= ly1) mask |= rowMask << PaintChunk.SIZE;
+            word &= mask;
+            while (word != 0L) {
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1L;
+                int idx = (w << 6) | bit;
+                visitor.accept(ox + (idx & PaintChunk.MASK), oy + (idx >> PaintChunk.SHIFT));
+            }
+        }
+    }
+
+    private void recomputeBounds() {
+        int bMinX = Integer.MAX_VALUE, bMinY = Integer.MAX_VALUE;
+        int bMaxX = Integer.MIN_VALUE, bMaxY = Integer.MIN_VALUE;
+        for (Block block : blocks.values()) {
+            int ox = block.cx << PaintChunk.SHIFT, oy = block.cy << PaintChunk.SHIFT;
+            for (int w = 0; w < WORDS; w++) {
+                long word = block.bits[w];
+                while (word != 0L) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    word &= word - 1L;
+                    int idx = (w << 6) | bit;
+                    int tx = ox + (idx & PaintChunk.MASK), ty = oy + (idx >> PaintChunk.SHIFT);
+                    if (tx < bMinX) bMinX = tx;
+                    if (tx > bMaxX) bMaxX = tx;
+                    if (ty < bMinY) bMinY = ty;
+                    if (ty > bMaxY) bMaxY = ty;
+                }
+            }
+        }
+        minX = bMinX; minY = bMinY; maxX = bMaxX; maxY = bMaxY;
+        boundsValid = true;
+    }
+
+    private Block block(int cx, int cy, boolean create) {
+        long k = PaintChunk.key(cx, cy);
+        if (k == lastKey && lastBlock != null) return lastBlock;
+        Block block = blocks.get(k);
+        if (block == null) {
+            if (!create) return null;
+            block = new Block(cx, cy);
+            blocks.put(k, block);
+        }
+        lastKey = k;
+        lastBlock = block;
+        return block;
+    }
+}
@@ -0,0 +1,216 @@
+package colox.gridmod.paint;
+
+/**
+ * Magic-wand region grow for {@link SelectionState} WAND mode. From a seed tile it collects the
+ * 4- or 8-connected tiles painted with the seed's category (or, by layer, anything on the
+ * seed's layer). The seed layer is the topmost painted layer at the seed that matches the
+ * selection filter.
+ * <p>
+ * Breadth-first over a ring of packed {@code long} coordinates that is reused between fills,
+ * and the result set doubles as the visited set, so a fill allocates nothing beyond the
+ * bitmap blocks of the region itself. Reads go straight to the resident chunks' layer arrays
+ * with a last-chunk cache. A fill stops at a tile cap and runs in slices: {@link #step} returns
+ * when its time budget is spent and the next call continues.
+ * <p>
+ * Between slices the fill restarts from the seed only if paint changed within one tile of the
+ * bounds filled so far; edits and regions streaming in elsewhere leave it running, and evictions
+ * are not in the change log, so they never restart it. While it runs, the regions under its
+ * bounds are pinned so camera-driven eviction does not take them away. Regions the fill
+ * reaches that are still on disk are loaded on the spot while the region budget allows; past
+ * that the fill skips them and {@link #wasCutShort} reports it. Render/tick thread only.
+ */
+final class WandFill {
+    // Orthogonal neighbours first, then diagonals
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    private final TileBitSet tiles = new TileBitSet();
+    private long[] queue = new long[1024]; // ring, length is a power of two
+    private int head, queued;
+
+    private boolean running, truncated, cutShort;
+    private int minX, minY, maxX, maxY; // bounds of the tiles filled so far
+    private final int[] changed = new int[4];
+    private int seedX, seedY;
+    private PaintLayerFilter filter;
+    private boolean byLayer;
+    private int directions;
+    private int cap;
+    private long version;
+    private int layer;
+    private int code; // category code to match, 0 = any category on the layer
+
+    private long lastKey = Long.MIN_VALUE;
+    private byte[] lastData;
+
+    /**
+     * Starts a fill from the seed tile. Returns false, leaving the region empty, when the seed
+     * has no painted layer matching {@code filter}.
+     */
+    boolean start(int tx, int ty, PaintLayerFilter filter, boolean byLayer, boolean diagonal, int cap) {
+        this.seedX = tx;
+        this.seedY = ty;
+        this.filter = (filter == null) ? PaintLayerFilter.ALL : filter;
+        this.byLayer = byLayer;
+        this.directions = diagonal ? 8 : 4;
+        this.cap = Math.max(1, cap);
+        return restart();
+    }
+
+    /**
+     * Grows the region for about {@code budgetNanos}; returns true once the fill is complete
+     * (region exhausted or cap reached).
+     */
+    boolean step(long budgetNanos) {
+        if (!running) return true;
+        if (PaintState.getVersion() != version) {
+            if (touchesFill()) {
+                if (!restart()) return true;
+            } else {
+                version = PaintState.getVersion();
+            }
+        }
+        lastKey = Long.MIN_VALUE;
+        long deadline = System.nanoTime() + budgetNanos;
+        int polled = 0;
+        while (queued > 0) {
+            long p = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            queued--;
+            int x = (int) (p >> 32), y = (int) p;
+            for (int d = 0; d < directions; d++) {
+                int nx = x + DX[d], ny = y + DY[d];
+                if (tiles.contains(nx, ny) || !matches(nx, ny)) continue;
+                if (tiles.size() >= cap) {
+                    truncated = true;
+                    stop();
+                    return true;
+                }
+                add(nx, ny);
+            }
+            if ((++polled & 1023) == 0 && System.nanoTime() >= deadline) {
+                PaintState.pinRegionsIn(minX - 1, minY - 1, maxX + 1, maxY + 1);
+                return false;
+            }
+        }
+        stop();
+        return true;
+    }
+
+    /** Abandons the fill and drops its region. */
+    void cancel() {
+        stop();
+        tiles.clear();
+        truncated = false;
+        cutShort = false;
+    }
+
+    boolean isRunning() { return running; }
+
+    /** True if the last fill stopped at the tile cap. */
+    boolean wasTruncated() { return truncated; }
+
+    /** True if the last fill skipped paint in regions it could not load within the region budget. */
+    boolean wasCutShort() { return cutShort; }
+
+    /** Region collected so far (complete once {@link #step} returned true). */
+    TileBitSet tiles() { return tiles; }
+
+    private boolean restart() {
+        PaintState.unpinRegions();
+        tiles.clear();
+        head = 0;
+        queued = 0;
+        truncated = false;
+        cutShort = false;
+        lastKey = Long.MIN_VALUE;
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
+        running = resolveSeed();
+        version = PaintState.getVersion();
+        if (running) add(seedX, seedY);
+        return running;
+    }
+
+    // Paint changed since the last slice next to or inside the region filled so far
+    private boolean touchesFill() {
+        if (!PaintState.getChangedBoundsSince(version, changed)) return false;
+        return changed[0] <= maxX + 1 && changed[2] >= minX - 1
+                && changed[1] <= maxY + 1 && changed[3] >= minY - 1;
+    }
+
+    private void add(int tx, int ty) {
+        tiles.add(tx, ty);
+        push(tx, ty);
+        if (tx < minX) minX = tx;
+        if (tx > maxX) maxX = tx;
+        if (ty < minY) minY = ty;
+        if (ty > maxY) maxY = ty;
+    }
+
+    // Resident chunk, loading its region first if it is still on disk
+    private PaintChunk chunk(int tx, int ty) {
+        int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+        PaintChunk chunk = PaintState.residentChunk(cx, cy);
+        if (chunk != null) return chunk;
+        if (!PaintState.loadRegionAt(tx, ty)) {
+            cutShort = true;
+            return null;
+        }
+        // Our own load only reveals tiles the fill has not read yet; keep the slice going
+        version = PaintState.getVersion();
+        return PaintState.residentChunk(cx, cy);
+    }
+
+    // Topmost painted layer at the seed that the filter allows, and its category code
+    private boolean resolveSeed() {
+        PaintChunk chunk = chunk(seedX, seedY);
+        if (chunk == null) return false;
+        int idx = PaintChunk.index(PaintChunk.local(seedX), PaintChunk.local(seedY));
+        PaintLayer[] order = PaintState.layersByDrawOrder();
+        for (int i = order.length - 1; i >= 0; i--) {
+            if (!filter.matches(order[i])) continue;
+            int c = chunk.get(order[i].ordinal(), idx);
+            if (c == 0) continue;
+            layer = order[i].ordinal();
+            code = byLayer ? 0 : c;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean matches(int tx, int ty) {
+        int cx = PaintChunk.chunkCoord(tx), cy = PaintChunk.chunkCoord(ty);
+        long k = PaintChunk.key(cx, cy);
+        if (k != lastKey) {
+            PaintChunk chunk = chunk(tx, ty);
+            lastData = (chunk == null) ? null : chunk.layerData(layer);
+            lastKey = k;
+        }
+        if (lastData == null) return false;
+        int v = lastData[PaintChunk.index(PaintChunk.local(tx), PaintChunk.local(ty))] & 0xff;
+        return code == 0 ? v != 0 : v == code;
+    }
+
+    private void push(int tx, int ty) {
+        if (queued == queue.length) grow();
+        queue[(head + queued) & (queue.length - 1)] = ((long) tx << 32) | (ty & 0xffffffffL);
+        queued++;
+    }
+
+    private void grow() {
+        long[] next = new long[queue.length * 2];
+        for (int i = 0; i < queued; i++) next[i] = queue[(head + i) & (queue.length - 1)];
+        queue = next;
+        head = 0;
+    }
+
+    private void stop() {
+        if (running) PaintState.unpinRegions();
+        running = false;
+        head = 0;
+        queued = 0;
+        lastData = null;
+        lastKey = Long.MIN_VALUE;
+    }
+}
@@ -9,6 +9,7 @@ import java.util.IdentityHashMap;
 import java.util.List;
 
 import colox.gridmod.config.GridConfig;
+import colox.gridmod.overlay.QuadBatcher;
 import colox.gridmod.paint.BlueprintPlacement;
 import colox.gridmod.paint.DefaultBlueprintRegistry;
 import colox.gridmod.paint.PaintBlueprints;
@@ -59,6 +60,7 @@ public final class PaintQuickPaletteOverlay {
 
     private static final PanelType[] PANEL_ORDER = new PanelType[]{
             PanelType.PAINT,
+            PanelType.STATS,
             PanelType.BLUEPRINTS,
             PanelType.GLOBAL_BLUEPRINTS,
             PanelType.GRID,
@@ -92,7 +94,7 @@ public final class PaintQuickPaletteOverlay {
     private static final IdentityHashMap<Object, PanelsHost> HOSTS = new IdentityHashMap<>();
     private static boolean buttonClickedThisTick;
 
-    private enum PanelType { PAINT, BLUEPRINTS, GLOBAL_BLUEPRINTS, GRID, SETTLEMENT }
+    private enum PanelType { PAINT, STATS, BLUEPRINTS, GLOBAL_BLUEPRINTS, GRID, SETTLEMENT }
 
     public static void tick(boolean paintEnabled) {
         buttonClickedThisTick = false;
@@ -161,6 +163,7 @@ public final class PaintQuickPaletteOverlay {
             boolean showGrid = GridConfig.gridEnabled;
 
             updatePanel(PanelType.PAINT, showPaint);
+            updatePanel(PanelType.STATS, showPaint);
             updatePanel(PanelType.BLUEPRINTS, showBlueprints);
             updatePanel(PanelType.GLOBAL_BLUEPRINTS, showGlobalBlueprints);
             updatePanel(PanelType.SETTLEMENT, showSettlement);
@@ -199,6 +202,7 @@ public final class PaintQuickPaletteOverlay {
         private SidePanelForm createForm(PanelType type) {
             switch (type) {
                 case GRID: return new GridPanel();
+                case STATS: return new StatsPanel();
                 case BLUEPRINTS: return new BlueprintPanel();
                 case GLOBAL_BLUEPRINTS: return new GlobalBlueprintPanel();
                 case SETTLEMENT: return new SettlementPanel();
@@ -419,6 +423,82 @@ public final class PaintQuickPaletteOverlay {
         }
     }
 
+    private static final class StatsPanel extends SidePanelForm {
+        private FormLabel totalLabel;
+        private FormLabel boundsLabel;
+        private FormLabel drawsLabel;
+        private final EnumMap<PaintLayer, FormLabel> layerLabels = new EnumMap<>(PaintLayer.class);
+        private final EnumMap<PaintCategory, FormLabel> categoryLabels = new EnumMap<>(PaintCategory.class);
+        private final int[] bounds = new int[4];
+        private long shownVersion = -1L;
+        private int shownQuads = -1, shownDraws = -1;
+
+        StatsPanel() {
+            super("Stats", "Paint statistics", 420);
+        }
+
+        @Override
+        protected void buildContent(FormContentBox content) {
+            int y = 6;
+            totalLabel = content.addComponent(new FormLabel("", new FontOptions(14), FormLabel.ALIGN_LEFT, 12, y));
+            y += 20;
+            boundsLabel = content.addComponent(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, 12, y));
+            y += 16;
+            drawsLabel = content.addComponent(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, 12, y));
+            y += 26;
+            content.addComponent(new FormLabel("By layer", new FontOptions(13), FormLabel.ALIGN_LEFT, 12, y));
+            y += 20;
+            for (PaintLayer layer : PaintLayer.values()) {
+                layerLabels.put(layer, content.addComponent(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, 20, y)));
+                y += 16;
+            }
+            y += 10;
+            content.addComponent(new FormLabel("By paint type", new FontOptions(13), FormLabel.ALIGN_LEFT, 12, y));
+            y += 20;
+            for (PaintCategory cat : PaintCategory.values()) {
+                categoryLabels.put(cat, content.addComponent(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, 20, y)));
+                y += 16;
+            }
+            content.setContentBox(new Rectangle(0, 0, PANEL_WIDTH, Math.max(y + 12, content.getHeight())));
+        }
+
+        @Override
+        protected void refreshContent() {
+            // Overlay quads batched last frame vs. engine draws actually issued
+            int quads = QuadBatcher.getLastFrameQuads(), draws = QuadBatcher.getLastFrameDraws();
+            if (quads != shownQuads || draws != shownDraws) {
+                shownQuads = quads;
+                shownDraws = draws;
+                drawsLabel.setText("Overlay quads: " + quads + " -> draw calls: " + draws);
+            }
+            // Counters are O(1) to read, but only rewrite label text when the paint changed.
+            long version = PaintState.getVersion();
+            if (version == shownVersion) return;
+            shownVersion = version;
+            totalLabel.setText("Painted entries: " + PaintState.getTotalCount());
+            if (PaintState.getPaintedBounds(bounds)) {
+                int w = bounds[2] - bounds[0] + 1, h = bounds[3] - bounds[1] + 1;
+                boundsLabel.setText("Bounds: (" + bounds[0] + ", " + bounds[1] + ") to ("
+                        + bounds[2] + ", " + bounds[3] + "), " + w + "x" + h);
+            } else {
+                boundsLabel.setText("Bounds: none");
+            }
+            for (PaintLayer layer : PaintLayer.values()) {
+                layerLabels.get(layer).setText(layerName(layer) + ": " + PaintState.getLayerCount(layer));
+            }
+            for (PaintCategory cat : PaintCategory.values()) {
+                categoryLabels.get(cat).setText(cat.label() + ": " + PaintState.getCategoryCount(cat));
+            }
+        }
+
+        private static String layerName(PaintLayer layer) {
+            for (LayerGroup group : PAINT_LAYER_GROUPS) {
+                if (group.contains(layer)) return group.title;
+            }
+            return layer.name();
+        }
+    }
+
     private static final class GridPanel extends SidePanelForm {
         private FormCheckBox gridToggle;
         private FormCheckBox chunkToggle;
@@ -625,6 +705,10 @@ public final class PaintQuickPaletteOverlay {
         private long lastSaveAsClick;
         private String lastSaveAsName;
         private List<ModeButton> modeButtons;
+        private List<CombineButton> combineButtons;
+        private FormTextButton invertBtn;
+        private FormTextButton wandMatchBtn;
+        private FormTextButton wandConnectBtn;
         private FormTextButton flipBtn;
         private FormTextButton rotateCwBtn;
         private FormTextButton rotateCcwBtn;
@@ -697,6 +781,7 @@ public final class PaintQuickPaletteOverlay {
             content.addComponent(new FormLabel("Selection mode", new FontOptions(14), FormLabel.ALIGN_LEFT, 12, y));
             y += 22;
             y = buildModeButtons(content, y);
+            y = buildCombineButtons(content, y);
 
             // Selection → blueprint: Save / Save As (selection-based)
             content.addComponent(new FormLabel("Selection \u2192 blueprint", new FontOptions(12), FormLabel.ALIGN_LEFT, 12, y));
@@ -769,15 +854,39 @@ public final class PaintQuickPaletteOverlay {
             }
             y += FormInputSize.SIZE_24.height + 6;
 
-            // Second row: Edge+Fill (full width)
-            SelectionState.Mode edgeFillMode = SelectionState.Mode.EDGE_FILL;
-            FormTextButton edgeFillBtn = content.addComponent(
-                    new FormTextButton(modeLabel(edgeFillMode), 12, y, PANEL_WIDTH - 24, FormInputSize.SIZE_24, ButtonColor.BASE));
-            edgeFillBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
-                SelectionState.setMode(edgeFillMode);
+            // Second row: Edge+Fill / Wand
+            x = 12;
+            SelectionState.Mode[] secondRow = new SelectionState.Mode[]{
+                    SelectionState.Mode.EDGE_FILL,
+                    SelectionState.Mode.WAND
+            };
+            for (SelectionState.Mode mode : secondRow) {
+                FormTextButton btn = content.addComponent(
+                        new FormTextButton(modeLabel(mode), x, y, halfWidth, FormInputSize.SIZE_24, ButtonColor.BASE));
+                btn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+                    SelectionState.setMode(mode);
+                    updateModeButtons();
+                });
+                modeButtons.add(new ModeButton(mode, btn));
+                x += halfWidth + 12;
+            }
+            y += FormInputSize.SIZE_24.height + 6;
+
+            // Wand options: match category/layer, 4/8 neighbours
+            wandMatchBtn = content.addComponent(
+                    new FormTextButton("", 12, y, halfWidth, FormInputSize.SIZE_24, ButtonColor.BASE));
+            wandMatchBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+                GridConfig.setWandMatchLayer(!GridConfig.wandMatchLayer);
+                GridConfig.saveIfDirty();
+                updateModeButtons();
+            });
+            wandConnectBtn = content.addComponent(
+                    new FormTextButton("", 24 + halfWidth, y, halfWidth, FormInputSize.SIZE_24, ButtonColor.BASE));
+            wandConnectBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+                GridConfig.setWandDiagonal(!GridConfig.wandDiagonal);
+                GridConfig.saveIfDirty();
                 updateModeButtons();
             });
-            modeButtons.add(new ModeButton(edgeFillMode, edgeFillBtn));
             y += FormInputSize.SIZE_24.height + 6;
 
             // Third row: All (full width)
@@ -791,10 +900,51 @@ public final class PaintQuickPaletteOverlay {
             return y + FormInputSize.SIZE_24.height + 8;
         }
 
+        private int buildCombineButtons(FormContentBox content, int y) {
+            combineButtons = new ArrayList<>();
+
+            content.addComponent(new FormLabel("Combine (next drag)", new FontOptions(12), FormLabel.ALIGN_LEFT, 12, y));
+            y += 18;
+
+            // One row: New / Add / Sub / And
+            int quarterWidth = (PANEL_WIDTH - 42) / 4;
+            int x = 12;
+            for (SelectionState.CombineOp op : SelectionState.CombineOp.values()) {
+                FormTextButton btn = content.addComponent(
+                        new FormTextButton(combineLabel(op), x, y, quarterWidth, FormInputSize.SIZE_24, ButtonColor.BASE));
+                btn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+                    SelectionState.setCombineOp(op);
+                    updateModeButtons();
+                });
+                combineButtons.add(new CombineButton(op, btn));
+                x += quarterWidth + 6;
+            }
+            y += FormInputSize.SIZE_24.height + 6;
+
+            invertBtn = content.addComponent(
+                    new FormTextButton("Invert selection", 12, y, PANEL_WIDTH - 24, FormInputSize.SIZE_24, ButtonColor.BASE));
+            invertBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+                SelectionState.invert();
+                updateModeButtons();
+            });
+            return y + FormInputSize.SIZE_24.height + 8;
+        }
+
+        private String combineLabel(SelectionState.CombineOp op) {
+            switch (op) {
+                case ADD: return "Add";
+                case SUBTRACT: return "Sub";
+                case INTERSECT: return "And";
+                case REPLACE:
+                default: return "New";
+            }
+        }
+
         private String modeLabel(SelectionState.Mode mode) {
             switch (mode) {
                 case EDGE: return "Edge";
                 case EDGE_FILL: return "Edge+Fill";
+                case WAND: return "Wand";
                 case ALL: return "All";
                 case RECT:
                 default: return "Rect";
@@ -811,8 +961,7 @@ public final class PaintQuickPaletteOverlay {
                 statusLabel.setText("Cannot overwrite default; use Save As with a new name.");
                 return;
             }
-            List<long[]> points = SelectionState.getSelectedPoints();
-            if (points.isEmpty()) {
+            if (SelectionState.getSelectedCount() == 0) {
                 statusLabel.setText("No tiles selected");
                 return;
             }
@@ -824,7 +973,7 @@ public final class PaintQuickPaletteOverlay {
                 statusLabel.setText("Click Save again within 5s to overwrite '" + name + "' with current selection.");
                 return;
             }
-            int written = PaintBlueprints.saveSelectionAs(name, points);
+            int written = PaintBlueprints.saveSelectionAs(name);
             lastSaveClick = 0;
             lastSaveName = null;
             if (written > 0) {
@@ -858,8 +1007,7 @@ public final class PaintQuickPaletteOverlay {
                 statusLabel.setText("Enter a name to save");
                 return;
             }
-            List<long[]> points = SelectionState.getSelectedPoints();
-            if (points.isEmpty()) {
+            if (SelectionState.getSelectedCount() == 0) {
                 statusLabel.setText("No tiles selected");
                 return;
             }
@@ -871,7 +1019,7 @@ public final class PaintQuickPaletteOverlay {
                 statusLabel.setText("Click Save As again within 5s to overwrite '" + name + "' with current selection.");
                 return;
             }
-            int written = PaintBlueprints.saveSelectionAs(name, points);
+            int written = PaintBlueprints.saveSelectionAs(name);
             lastSaveAsClick = 0;
             lastSaveAsName = null;
             if (written > 0) {
@@ -1043,6 +1191,21 @@ public final class PaintQuickPaletteOverlay {
                 String text = entry.mode == mode ? ("> " + modeLabel(entry.mode)) : modeLabel(entry.mode);
                 entry.button.setText(text);
             }
+            SelectionState.CombineOp op = SelectionState.getCombineOp();
+            for (CombineButton entry : combineButtons) {
+                entry.button.setText(entry.op == op ? ("> " + combineLabel(entry.op)) : combineLabel(entry.op));
+            }
+            if (wandMatchBtn != null) {
+                wandMatchBtn.setText(GridConfig.wandMatchLayer ? "Wand: Layer" : "Wand: Category");
+                wandMatchBtn.setActive(mode == SelectionState.Mode.WAND);
+            }
+            if (wandConnectBtn != null) {
+                wandConnectBtn.setText(GridConfig.wandDiagonal ? "Wand: 8-way" : "Wand: 4-way");
+                wandConnectBtn.setActive(mode == SelectionState.Mode.WAND);
+            }
+            if (invertBtn != null) {
+                invertBtn.setActive(mode != SelectionState.Mode.NONE && mode != SelectionState.Mode.ALL);
+            }
             boolean placementActive = BlueprintPlacement.active;
             if (flipBtn != null) {
                 flipBtn.setText(BlueprintPlacement.isFlipped() ? "Flip (X)" : "Flip");
@@ -1073,6 +1236,15 @@ public final class PaintQuickPaletteOverlay {
                 this.button = button;
             }
         }
+
+        private static final class CombineButton {
+            final SelectionState.CombineOp op;
+            final FormTextButton button;
+            CombineButton(SelectionState.CombineOp op, FormTextButton button) {
+                this.op = op;
+                this.button = button;
+            }
+        }
     }
 
     private static final class GlobalBlueprintPanel extends SidePanelForm {
@@ -22,10 +22,13 @@ import necesse.gfx.ui.ButtonColor;
 
 import colox.gridmod.config.GridConfig;
 import colox.gridmod.paint.DefaultBlueprintRegistry;
+import colox.gridmod.paint.PaintBlueprints;
 import colox.gridmod.paint.PaintCategory;
 import colox.gridmod.paint.PaintLayerFilter;
+import colox.gridmod.paint.PaintSaveWriter;
 import colox.gridmod.paint.PaintState;
 import colox.gridmod.paint.SelectionState;
+import colox.gridmod.util.ConfigPaths;
 
 /*
 // ===========================================================================
@@ -81,8 +84,11 @@ public class PaintTab {
     private FormSlider    brushSlider;
     private FormTextButton paintClearBtn;
     private FormLabel     brushValueLabel;
+    private FormLabel     saveStatsLabel;
+    private FormLabel     paintExportLabel;
 
     private FormLabel blueprintStatusLabel;
+    private FormLabel blueprintExportLabel;
 
     // Selection
     private FormDropdownSelectionButton<String> selModeDropdown;
@@ -177,8 +183,19 @@ public class PaintTab {
 
         paintClearBtn = add(new FormTextButton("Clear paint", px, pY, 160, FormInputSize.SIZE_24, ButtonColor.BASE), px, pY);
         paintClearBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> PaintState.clear());
+        FormTextButton paintExportBtn = add(new FormTextButton("Export as text", px + 170, pY, 160, FormInputSize.SIZE_24, ButtonColor.BASE), px + 170, pY);
+        paintExportBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+            paintExportLabel.setText(describeExport(PaintState.exportLegacyText()));
+        });
         pY += FormInputSize.SIZE_24.height + 8;
 
+        paintExportLabel = add(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, px, pY), px, pY);
+        pY += LINE - 10;
+
+        saveStatsLabel = add(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, px, pY), px, pY);
+        updateSaveStatsLabel();
+        pY += LINE - 10;
+
         add(new FormLabel("Erase by layer", new FontOptions(12), FormLabel.ALIGN_LEFT, px, pY), px, pY);
         pY += LINE - 10;
         int filterDdWidth = Math.max(180, Math.min(240, usableRow - 60));
@@ -234,6 +251,17 @@ public class PaintTab {
         );
         pY += 64;
 
+        FormTextButton bpExportBtn = add(new FormTextButton("Export current as text", px, pY, 200, FormInputSize.SIZE_24, ButtonColor.BASE), px, pY);
+        bpExportBtn.onClicked((FormEventListener<FormInputEvent<FormButton>>) e -> {
+            String key = GridConfig.selectedBlueprint;
+            if (key == null || key.isBlank() || DefaultBlueprintRegistry.isDefaultKey(key)) return;
+            blueprintExportLabel.setText(describeExport(PaintBlueprints.exportLegacyText(key)));
+        });
+        pY += FormInputSize.SIZE_24.height + 8;
+
+        blueprintExportLabel = add(new FormLabel("", new FontOptions(12), FormLabel.ALIGN_LEFT, px, pY), px, pY);
+        pY += LINE - 10;
+
         finishCard(cardBP, pY + 4);
         py = cardBP.getY() + cardBP.height + 10;
 
@@ -250,6 +278,7 @@ public class PaintTab {
         selModeDropdown.options.add("Rect",        new StaticMessage("Mode: Rectangle"));
         selModeDropdown.options.add("Edge",        new StaticMessage("Mode: Edge stroke"));
         selModeDropdown.options.add("Edge+Fill",   new StaticMessage("Mode: Edge stroke + fill"));
+        selModeDropdown.options.add("Wand",        new StaticMessage("Mode: Magic wand"));
         selModeDropdown.options.add("All",         new StaticMessage("Mode: Select all"));
         selModeDropdown.setSelected("None", new StaticMessage("Mode: None"));
         selModeDropdown.onSelected(e -> {
@@ -260,6 +289,7 @@ public class PaintTab {
                 case "Rect":      SelectionState.setMode(SelectionState.Mode.RECT);      break;
                 case "Edge":      SelectionState.setMode(SelectionState.Mode.EDGE);      break;
                 case "Edge+Fill": SelectionState.setMode(SelectionState.Mode.EDGE_FILL); break;
+                case "Wand":      SelectionState.setMode(SelectionState.Mode.WAND);      break;
                 case "All":       SelectionState.setMode(SelectionState.Mode.ALL);      break;
             }
             updateSelCountLabel();
@@ -287,6 +317,7 @@ public class PaintTab {
                                        java.awt.Rectangle renderBox) {
                 updateSelCountLabel();
                 updateBlueprintStatusLabel();
+                updateSaveStatsLabel();
             }
         }, 0, 0);
 
@@ -306,9 +337,33 @@ public class PaintTab {
             case RECT:       mode = "Rect";       break;
             case EDGE:       mode = "Edge";       break;
             case EDGE_FILL:  mode = "Edge+Fill";  break;
+            case WAND:       mode = "Wand";       break;
             default:         mode = "None";
         }
-        selCountLabel.setText("Mode: " + mode + " - Selected: " + n + " cells");
+        String note = "";
+        if (SelectionState.getMode() == SelectionState.Mode.WAND) {
+            if (SelectionState.isWandFilling()) note = " (filling...)";
+            else if (SelectionState.wasWandTruncated()) note = " (wand hit the tile cap)";
+            else if (SelectionState.wasWandCutShort()) note = " (wand stopped at unloaded paint)";
+        }
+        selCountLabel.setText("Mode: " + mode + " - Selected: " + n + " cells" + note);
+    }
+
+    private void updateSaveStatsLabel() {
+        if (saveStatsLabel == null) return;
+        saveStatsLabel.setText("Saves: " + PaintSaveWriter.getSavesCompleted()
+                + " - last " + PaintSaveWriter.getLastWriteMillis() + " ms"
+                + " (snapshot " + PaintSaveWriter.getLastSnapshotMicros() + " us)"
+                + " - queued " + PaintSaveWriter.getQueueDepth()
+                + " - regions " + PaintState.getResidentRegionCount() + "/" + PaintState.getRegionFileCount());
+    }
+
+    // Export result for the status line, relative to the mod data folder
+    private static String describeExport(java.io.File out) {
+        if (out == null) return "Export failed";
+        java.nio.file.Path p = out.toPath();
+        java.nio.file.Path base = ConfigPaths.modDataDir();
+        return "Exported (text v1): " + (p.startsWith(base) ? base.relativize(p) : p);
     }
 
     private void updateBlueprintStatusLabel() {
@@ -34,10 +34,28 @@ public final class ConfigPaths {
         return p;
     }
 
+    /** Binary (GPNT) paint settings for the world; region tiles live under {@link #worldPaintRegionsDir}. */
     public static Path worldPaintFile(String worldKey) {
+        return worldDir(worldKey).resolve("paint_state.gridpaint");
+    }
+
+    /** Pre-rename name of {@link #worldPaintFile}; read once and moved over on load. */
+    public static Path legacyWorldPaintFile(String worldKey) {
         return worldDir(worldKey).resolve("paint_state.txt");
     }
 
+    /** …/worlds/<key>/regions/ — one paint file per 256x256 tile region. */
+    public static Path worldPaintRegionsDir(String worldKey) {
+        Path p = worldDir(worldKey).resolve("regions");
+        try { Files.createDirectories(p); } catch (Exception ignored) {}
+        return p;
+    }
+
+    /** Text (v1) copy written by the explicit legacy export; never read back automatically. */
+    public static Path worldPaintTextExportFile(String worldKey) {
+        return worldDir(worldKey).resolve("paint_state.v1.txt");
+    }
+
     public static Path worldSettingsFile(String worldKey) {
         return worldDir(worldKey).resolve("grid_settings.txt");
     }